@@ -0,0 +1,79 @@
+package de.unistuttgart.iste.ese.api.todos;
+
+import de.unistuttgart.iste.ese.api.assignees.Assignee;
+import de.unistuttgart.iste.ese.api.metrics.ServiceMetrics;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.persistence.EntityManager;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.lang.reflect.Proxy;
+import java.util.Date;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.LongStream;
+
+/**
+ * Synthetic Todos and in-memory stand-ins for the persistence layer used by the benchmarks.
+ */
+final class BenchmarkData {
+
+    static final String SHORT_TITLE = "Team meeting";
+
+    static final String LONG_TITLE = "Prepare the annual budget review and the sales presentation for the client meeting "
+        + "after the product launch, then plan the marketing strategy with the team before the project deadline";
+
+    private static final List<Assignee> ASSIGNEES = List.of(
+        assignee(1, "Ada", "Lovelace"), assignee(2, "Alan", "Turing"), assignee(3, "Grace", "Hopper"));
+
+    private BenchmarkData() {
+    }
+
+    /**
+     * Creates a Todo with one to three assignees, as the list and export paths see them.
+     */
+    static Todo todo(long id) {
+        Todo todo = new Todo("Todo " + id + " " + SHORT_TITLE, "Description of todo " + id, id % 2 == 0,
+            ASSIGNEES.subList(0, (int) (id % ASSIGNEES.size()) + 1), new Date(1_700_000_000_000L + id),
+            new Date(1_800_000_000_000L + id), null, id % 3 == 0 ? "private" : "work");
+        todo.setId(id);
+        return todo;
+    }
+
+    static List<Todo> todos(int count) {
+        return LongStream.rangeClosed(1, count).mapToObj(BenchmarkData::todo).collect(Collectors.toList());
+    }
+
+    /**
+     * Creates a TodoService backed by an in-memory repository that generates the given number of rows on demand.
+     */
+    static TodoService todoService(int rows) {
+        TodoRepository repository = (TodoRepository) Proxy.newProxyInstance(TodoRepository.class.getClassLoader(),
+            new Class<?>[]{TodoRepository.class}, (proxy, method, args) -> switch (method.getName()) {
+                case "streamAllOrderedById" -> LongStream.rangeClosed(1, rows).mapToObj(BenchmarkData::todo);
+                case "findAll" -> todos(rows);
+                default -> throw new UnsupportedOperationException(method.getName());
+            });
+        EntityManager entityManager = (EntityManager) Proxy.newProxyInstance(EntityManager.class.getClassLoader(),
+            new Class<?>[]{EntityManager.class}, (proxy, method, args) -> {
+                if (method.getName().equals("detach")) {
+                    return null;
+                }
+                throw new UnsupportedOperationException(method.getName());
+            });
+
+        ServiceMetrics serviceMetrics = new ServiceMetrics();
+        ReflectionTestUtils.setField(serviceMetrics, "meterRegistry", new SimpleMeterRegistry());
+
+        TodoService todoService = new TodoService();
+        ReflectionTestUtils.setField(todoService, "todoRepository", repository);
+        ReflectionTestUtils.setField(todoService, "entityManager", entityManager);
+        ReflectionTestUtils.setField(todoService, "serviceMetrics", serviceMetrics);
+        return todoService;
+    }
+
+    private static Assignee assignee(long id, String prename, String name) {
+        Assignee assignee = new Assignee(prename, name, prename.toLowerCase() + "@uni-stuttgart.de");
+        assignee.setId(id);
+        return assignee;
+    }
+}
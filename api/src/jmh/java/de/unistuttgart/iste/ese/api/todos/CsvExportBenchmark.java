@@ -0,0 +1,35 @@
+package de.unistuttgart.iste.ese.api.todos;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the CSV export against an in-memory repository that generates the rows on demand,
+ * so the numbers cover formatting and writing without any database access.
+ */
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+@State(Scope.Benchmark)
+public class CsvExportBenchmark {
+
+    @Param({"1000", "100000", "1000000"})
+    public int rows;
+
+    private TodoService todoService;
+
+    @Setup
+    public void setUp() {
+        todoService = BenchmarkData.todoService(rows);
+    }
+
+    @Benchmark
+    public void exportTodosToCSV() throws IOException {
+        todoService.exportTodosToCSV(Writer.nullWriter());
+    }
+}
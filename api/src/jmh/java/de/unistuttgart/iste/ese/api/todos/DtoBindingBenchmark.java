@@ -0,0 +1,60 @@
+package de.unistuttgart.iste.ese.api.todos;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import de.unistuttgart.iste.ese.api.todos.dtos.GetTodoDTO;
+import de.unistuttgart.iste.ese.api.todos.dtos.TodoDTO;
+import org.openjdk.jmh.annotations.*;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * Measures the Jackson binding of one request: reading a TodoDTO body and writing a GetTodoDTO
+ * response, and writing a page of GetTodoDTOs.
+ * Run with the gc profiler, gc.alloc.rate.norm is the allocation per request in bytes.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class DtoBindingBenchmark {
+
+    private static final byte[] REQUEST_BODY = ("{\"title\":\"" + BenchmarkData.SHORT_TITLE + "\","
+        + "\"description\":\"Discuss the roadmap\",\"finished\":false,\"assigneeIdList\":[1,2,3],"
+        + "\"dueDate\":1800000000000}").getBytes(StandardCharsets.UTF_8);
+
+    private ObjectReader todoReader;
+    private ObjectWriter writer;
+    private GetTodoDTO dto;
+    private List<GetTodoDTO> page;
+
+    @Setup
+    public void setUp() {
+        ObjectMapper objectMapper = new ObjectMapper();
+        todoReader = objectMapper.readerFor(TodoDTO.class);
+        writer = objectMapper.writer();
+        page = BenchmarkData.todos(100).stream().map(TodoService::mapToGetTodoDTO).collect(Collectors.toList());
+        dto = page.get(0);
+    }
+
+    @Benchmark
+    public TodoDTO readTodoDTO() throws Exception {
+        return todoReader.readValue(REQUEST_BODY);
+    }
+
+    @Benchmark
+    public byte[] writeGetTodoDTO() throws Exception {
+        return writer.writeValueAsBytes(dto);
+    }
+
+    @Benchmark
+    public byte[] writeTodoPage() throws Exception {
+        return writer.writeValueAsBytes(page);
+    }
+}
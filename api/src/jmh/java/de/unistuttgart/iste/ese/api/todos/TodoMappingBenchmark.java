@@ -0,0 +1,50 @@
+package de.unistuttgart.iste.ese.api.todos;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import de.unistuttgart.iste.ese.api.todos.dtos.GetTodoDTO;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * Measures mapping Todo entities to DTOs and serializing DTO lists to JSON,
+ * with and without the pretty-printing configured in application.properties.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class TodoMappingBenchmark {
+
+    @Param({"100", "1000"})
+    public int size;
+
+    @Param({"true", "false"})
+    public boolean indentOutput;
+
+    private List<Todo> todos;
+    private List<GetTodoDTO> dtos;
+    private ObjectMapper objectMapper;
+
+    @Setup
+    public void setUp() {
+        todos = BenchmarkData.todos(size);
+        dtos = todos.stream().map(TodoService::mapToGetTodoDTO).collect(Collectors.toList());
+        objectMapper = new ObjectMapper().configure(SerializationFeature.INDENT_OUTPUT, indentOutput);
+    }
+
+    @Benchmark
+    public List<GetTodoDTO> mapToGetTodoDTO() {
+        return todos.stream().map(TodoService::mapToGetTodoDTO).collect(Collectors.toList());
+    }
+
+    @Benchmark
+    public byte[] serializeGetTodoDTOs() throws Exception {
+        return objectMapper.writeValueAsBytes(dtos);
+    }
+}
@@ -0,0 +1,34 @@
+package de.unistuttgart.iste.ese.api.todos;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the classification of a single title, the most expensive CPU step on the write path.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class TodoModelBenchmark {
+
+    private TodoModel todoModel;
+
+    @Setup
+    public void setUp() {
+        todoModel = new TodoModel("model.pmml");
+    }
+
+    @Benchmark
+    public String predictShortTitle() {
+        return todoModel.predictClass(BenchmarkData.SHORT_TITLE);
+    }
+
+    @Benchmark
+    public String predictLongTitle() {
+        return todoModel.predictClass(BenchmarkData.LONG_TITLE);
+    }
+}
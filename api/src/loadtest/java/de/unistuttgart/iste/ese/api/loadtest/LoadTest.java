@@ -0,0 +1,361 @@
+package de.unistuttgart.iste.ese.api.loadtest;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import de.unistuttgart.iste.ese.api.Application;
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+import org.springframework.boot.SpringApplication;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Offline load test of the API.
+ * Starts the application in-process against the embedded H2 database of the test profile, seeds a
+ * deterministic dataset and drives a configurable mix of requests, either closed-loop (a fixed number
+ * of clients, each waiting for its response) or open-loop (a fixed arrival rate, latencies measured
+ * from the intended start time to avoid coordinated omission). Throughput and p50/p95/p99/p99.9
+ * latencies per endpoint are printed and written as a JSON report.
+ *
+ * <p>Options (all optional): {@code --mode=closed|open}, {@code --concurrency=32}, {@code --rate=500},
+ * {@code --duration=60}, {@code --warmup=10} (seconds), {@code --todos=10000}, {@code --assignees=50},
+ * {@code --seed=42}, {@code --report=target/loadtest-report.json} and
+ * {@code --mix=listTodos:40,getTodo:20,createTodo:15,updateTodo:10,deleteTodo:5,listAssignees:8,exportCsv:2}.
+ */
+public class LoadTest {
+
+    private static final String DEFAULT_MIX =
+        "listTodos:40,getTodo:20,createTodo:15,updateTodo:10,deleteTodo:5,listAssignees:8,exportCsv:2";
+
+    private static final int SEED_BATCH_SIZE = 5000;
+
+    private static final long HIGHEST_TRACKABLE_MICROS = TimeUnit.MINUTES.toMicros(10);
+
+    private static final String[] TITLE_WORDS = {
+        "team", "meeting", "annual", "budget", "review", "birthday", "party", "client", "presentation",
+        "grocery", "shopping", "gym", "session", "project", "deadline", "dinner", "family", "report"};
+
+    private final Map<String, String> options;
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final HttpClient httpClient = HttpClient.newBuilder().connectTimeout(Duration.ofSeconds(10)).build();
+    private final Map<String, Endpoint> endpoints = new LinkedHashMap<>();
+    private final List<Long> seededTodoIds = new ArrayList<>();
+    private final List<Long> seededAssigneeIds = new ArrayList<>();
+    private final ConcurrentLinkedQueue<Long> createdTodoIds = new ConcurrentLinkedQueue<>();
+    private String baseUrl;
+    private String[] mixNames;
+    private int[] mixWeights;
+    private int mixTotal;
+    private volatile boolean recording;
+
+    /**
+     * Latency histogram and counters of one endpoint.
+     */
+    private static final class Endpoint {
+        final Histogram latencies = new ConcurrentHistogram(HIGHEST_TRACKABLE_MICROS, 3);
+        final AtomicLong errors = new AtomicLong();
+    }
+
+    private LoadTest(Map<String, String> options) {
+        this.options = options;
+    }
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> options = new HashMap<>();
+        for (String arg : args) {
+            if (arg.startsWith("--") && arg.contains("=")) {
+                options.put(arg.substring(2, arg.indexOf('=')), arg.substring(arg.indexOf('=') + 1));
+            }
+        }
+        new LoadTest(options).run();
+    }
+
+    private void run() throws Exception {
+        ConfigurableApplicationContext context = SpringApplication.run(Application.class,
+            "--server.port=0", "--logging.level.web=INFO");
+        try {
+            String port = context.getEnvironment().getProperty("local.server.port");
+            String contextPath = context.getEnvironment().getProperty("server.servlet.context-path", "");
+            baseUrl = "http://localhost:" + port + contextPath + "/api/v1";
+            parseMix(option("mix", DEFAULT_MIX));
+
+            seed(intOption("assignees", 50), intOption("todos", 10_000), Long.parseLong(option("seed", "42")));
+
+            String mode = option("mode", "closed");
+            Duration warmup = Duration.ofSeconds(intOption("warmup", 10));
+            Duration duration = Duration.ofSeconds(intOption("duration", 60));
+            drive(mode, warmup, false);
+            drive(mode, duration, true);
+
+            report(mode, duration);
+        } finally {
+            context.close();
+        }
+    }
+
+    /**
+     * Creates a deterministic dataset through the API.
+     */
+    private void seed(int assignees, int todos, long seed) throws Exception {
+        Random random = new Random(seed);
+        for (int i = 0; i < assignees; i++) {
+            Map<String, Object> assignee = Map.of("prename", "First" + i, "name", "Last" + i,
+                "email", "user" + i + "@uni-stuttgart.de");
+            JsonNode created = objectMapper.readTree(send(post("/assignees", assignee)).body());
+            seededAssigneeIds.add(created.get("id").asLong());
+        }
+        for (int offset = 0; offset < todos; offset += SEED_BATCH_SIZE) {
+            List<Map<String, Object>> batch = new ArrayList<>();
+            for (int i = offset; i < Math.min(todos, offset + SEED_BATCH_SIZE); i++) {
+                batch.add(randomTodo(random));
+            }
+            JsonNode result = objectMapper.readTree(send(post("/todos/batch", batch)).body());
+            for (JsonNode todo : result.get("created")) {
+                seededTodoIds.add(todo.get("id").asLong());
+            }
+        }
+        System.out.println("Seeded " + seededAssigneeIds.size() + " assignees and " + seededTodoIds.size() + " todos");
+    }
+
+    /**
+     * Runs the request mix for the given duration, recording latencies only if requested.
+     */
+    private void drive(String mode, Duration duration, boolean record) throws Exception {
+        recording = record;
+        long end = System.nanoTime() + duration.toNanos();
+        if (mode.equals("open")) {
+            driveOpenLoop(end, intOption("rate", 500));
+        } else {
+            driveClosedLoop(end, intOption("concurrency", 32));
+        }
+    }
+
+    private void driveClosedLoop(long end, int concurrency) throws InterruptedException {
+        ExecutorService clients = Executors.newFixedThreadPool(concurrency);
+        for (int i = 0; i < concurrency; i++) {
+            clients.execute(() -> {
+                while (System.nanoTime() < end) {
+                    String operation = nextOperation();
+                    long start = System.nanoTime();
+                    try {
+                        HttpResponse<byte[]> response = send(request(operation));
+                        complete(operation, start, response, null);
+                    } catch (Exception e) {
+                        complete(operation, start, null, e);
+                    }
+                }
+            });
+        }
+        clients.shutdown();
+        clients.awaitTermination(1, TimeUnit.HOURS);
+    }
+
+    private void driveOpenLoop(long end, int rate) {
+        long interval = TimeUnit.SECONDS.toNanos(1) / rate;
+        List<CompletableFuture<?>> inFlight = new ArrayList<>();
+        long intended = System.nanoTime();
+        while (intended < end) {
+            long wait = intended - System.nanoTime();
+            if (wait > 0) {
+                LockSupport.parkNanos(wait);
+            }
+            String operation = nextOperation();
+            long start = intended;
+            CompletableFuture<?> future;
+            try {
+                future = httpClient.sendAsync(request(operation), HttpResponse.BodyHandlers.ofByteArray())
+                    .whenComplete((response, error) -> complete(operation, start, response, error));
+            } catch (Exception e) {
+                complete(operation, start, null, e);
+                future = CompletableFuture.completedFuture(null);
+            }
+            inFlight.add(future);
+            inFlight.removeIf(CompletableFuture::isDone);
+            intended += interval;
+        }
+        CompletableFuture.allOf(inFlight.toArray(new CompletableFuture[0])).join();
+    }
+
+    private void complete(String operation, long start, HttpResponse<byte[]> response, Throwable error) {
+        long micros = Math.min(TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - start), HIGHEST_TRACKABLE_MICROS);
+        boolean failed = error != null || response.statusCode() >= 400;
+        if (!failed && operation.equals("createTodo")) {
+            try {
+                createdTodoIds.add(objectMapper.readTree(response.body()).get("id").asLong());
+            } catch (IOException e) {
+                failed = true;
+            }
+        }
+        if (!recording) {
+            return;
+        }
+        Endpoint endpoint = endpoints.get(operation);
+        endpoint.latencies.recordValue(micros);
+        if (failed) {
+            endpoint.errors.incrementAndGet();
+        }
+    }
+
+    private HttpRequest request(String operation) throws IOException {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        return switch (operation) {
+            case "listTodos" -> get("/todos?limit=100");
+            case "getTodo" -> get("/todos/" + randomSeededTodoId());
+            case "createTodo" -> post("/todos", randomTodo(random));
+            case "updateTodo" -> HttpRequest.newBuilder(URI.create(baseUrl + "/todos/" + randomSeededTodoId()))
+                .header("Content-Type", "application/json")
+                .PUT(HttpRequest.BodyPublishers.ofByteArray(objectMapper.writeValueAsBytes(randomTodo(random))))
+                .build();
+            case "deleteTodo" -> {
+                // only todos created during the run are deleted, so the seeded ids stay valid
+                Long id = createdTodoIds.poll();
+                yield id != null
+                    ? HttpRequest.newBuilder(URI.create(baseUrl + "/todos/" + id)).DELETE().build()
+                    : get("/todos/" + randomSeededTodoId());
+            }
+            case "listAssignees" -> get("/assignees");
+            case "exportCsv" -> get("/csv-downloads/todos");
+            default -> throw new IllegalArgumentException("Unknown operation " + operation);
+        };
+    }
+
+    private Map<String, Object> randomTodo(Random random) {
+        StringBuilder title = new StringBuilder();
+        for (int i = 0, words = 1 + random.nextInt(5); i < words; i++) {
+            title.append(i > 0 ? " " : "").append(TITLE_WORDS[random.nextInt(TITLE_WORDS.length)]);
+        }
+        List<Long> assigneeIds = new ArrayList<>();
+        if (!seededAssigneeIds.isEmpty()) {
+            for (int i = 0, count = random.nextInt(3); i < count; i++) {
+                assigneeIds.add(seededAssigneeIds.get(random.nextInt(seededAssigneeIds.size())));
+            }
+        }
+        Map<String, Object> todo = new HashMap<>();
+        todo.put("title", title.toString());
+        todo.put("description", "Load test todo");
+        todo.put("finished", random.nextInt(4) == 0);
+        todo.put("assigneeIdList", assigneeIds);
+        todo.put("dueDate", 1_800_000_000_000L + random.nextInt(1_000_000_000));
+        return todo;
+    }
+
+    private long randomSeededTodoId() {
+        return seededTodoIds.get(ThreadLocalRandom.current().nextInt(seededTodoIds.size()));
+    }
+
+    private String nextOperation() {
+        int value = ThreadLocalRandom.current().nextInt(mixTotal);
+        for (int i = 0; i < mixWeights.length; i++) {
+            value -= mixWeights[i];
+            if (value < 0) {
+                return mixNames[i];
+            }
+        }
+        return mixNames[mixNames.length - 1];
+    }
+
+    private void parseMix(String mix) {
+        String[] entries = mix.split(",");
+        mixNames = new String[entries.length];
+        mixWeights = new int[entries.length];
+        for (int i = 0; i < entries.length; i++) {
+            String[] entry = entries[i].split(":");
+            mixNames[i] = entry[0].trim();
+            mixWeights[i] = Integer.parseInt(entry[1].trim());
+            mixTotal += mixWeights[i];
+            endpoints.put(mixNames[i], new Endpoint());
+        }
+    }
+
+    private HttpRequest get(String path) {
+        return HttpRequest.newBuilder(URI.create(baseUrl + path)).GET().build();
+    }
+
+    private HttpRequest post(String path, Object body) throws IOException {
+        return HttpRequest.newBuilder(URI.create(baseUrl + path))
+            .header("Content-Type", "application/json")
+            .POST(HttpRequest.BodyPublishers.ofByteArray(objectMapper.writeValueAsBytes(body)))
+            .build();
+    }
+
+    private HttpResponse<byte[]> send(HttpRequest request) throws IOException, InterruptedException {
+        return httpClient.send(request, HttpResponse.BodyHandlers.ofByteArray());
+    }
+
+    /**
+     * Prints a summary and writes the machine-readable report.
+     */
+    private void report(String mode, Duration duration) throws IOException {
+        Map<String, Object> report = new LinkedHashMap<>();
+        report.put("timestamp", Instant.now().toString());
+        report.put("mode", mode);
+        report.put("options", new LinkedHashMap<>(options));
+        report.put("durationSeconds", duration.toSeconds());
+        report.put("seededTodos", seededTodoIds.size());
+
+        Map<String, Object> results = new LinkedHashMap<>();
+        System.out.printf("%-15s %10s %8s %10s %10s %10s %10s %10s%n",
+            "endpoint", "requests", "errors", "req/s", "p50 ms", "p95 ms", "p99 ms", "p99.9 ms");
+        for (Map.Entry<String, Endpoint> entry : endpoints.entrySet()) {
+            Histogram latencies = entry.getValue().latencies;
+            long count = latencies.getTotalCount();
+            Map<String, Object> result = new LinkedHashMap<>();
+            result.put("requests", count);
+            result.put("errors", entry.getValue().errors.get());
+            result.put("throughput", (double) count / duration.toSeconds());
+            result.put("p50Millis", percentile(latencies, 50));
+            result.put("p95Millis", percentile(latencies, 95));
+            result.put("p99Millis", percentile(latencies, 99));
+            result.put("p999Millis", percentile(latencies, 99.9));
+            result.put("maxMillis", latencies.getMaxValue() / 1000.0);
+            results.put(entry.getKey(), result);
+            System.out.printf("%-15s %10d %8d %10.1f %10.2f %10.2f %10.2f %10.2f%n", entry.getKey(), count,
+                entry.getValue().errors.get(), result.get("throughput"), result.get("p50Millis"),
+                result.get("p95Millis"), result.get("p99Millis"), result.get("p999Millis"));
+        }
+        report.put("endpoints", results);
+
+        Path file = Path.of(option("report", "target/loadtest-report.json"));
+        if (file.getParent() != null) {
+            Files.createDirectories(file.getParent());
+        }
+        objectMapper.writer().with(SerializationFeature.INDENT_OUTPUT).writeValue(file.toFile(), report);
+        System.out.println("Report written to " + file.toAbsolutePath());
+    }
+
+    private static double percentile(Histogram histogram, double percentile) {
+        return histogram.getTotalCount() == 0 ? 0 : histogram.getValueAtPercentile(percentile) / 1000.0;
+    }
+
+    private String option(String name, String defaultValue) {
+        return options.getOrDefault(name, defaultValue);
+    }
+
+    private int intOption(String name, int defaultValue) {
+        return Integer.parseInt(option(name, String.valueOf(defaultValue)));
+    }
+}
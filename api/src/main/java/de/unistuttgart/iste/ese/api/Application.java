@@ -1,9 +1,12 @@
 package de.unistuttgart.iste.ese.api;
 
+import de.unistuttgart.iste.ese.api.sql.SqlBudgetGuard;
+import de.unistuttgart.iste.ese.api.todos.TodoController;
 import jakarta.annotation.Nonnull;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
 import org.springframework.context.annotation.Bean;
+import org.springframework.http.HttpHeaders;
 import org.springframework.web.servlet.config.annotation.CorsRegistry;
 import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
 
@@ -20,8 +23,10 @@ public class Application {
             @Override
             public void addCorsMappings(@Nonnull CorsRegistry registry) {
                 registry.addMapping("/**")
-                        .allowedMethods("OPTIONS", "HEAD", "GET", "PUT", "POST", "DELETE")
-                        .allowedOrigins("http://localhost:5173", "http://localhost:5174");
+                        .allowedMethods("OPTIONS", "HEAD", "GET", "PUT", "PATCH", "POST", "DELETE")
+                        .allowedOrigins("http://localhost:5173", "http://localhost:5174")
+                        .exposedHeaders(HttpHeaders.ETAG, TodoController.NEXT_CURSOR_HEADER,
+                            SqlBudgetGuard.STATEMENTS_HEADER, SqlBudgetGuard.ROWS_HEADER);
             }
         };
     }
@@ -0,0 +1,65 @@
+package de.unistuttgart.iste.ese.api;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.persistence.EntityManagerFactory;
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+
+/**
+ * Moves the id sequences of Todos and Assignees above the existing ids on startup.
+ * The ids used to come from auto-increment columns; on a database created back then the schema
+ * update adds the sequences starting at 1, and the first inserts would collide with existing rows.
+ * Hibernate hands out the ALLOCATION_SIZE ids up to each sequence value, so the next value has to be
+ * at least the largest id plus the allocation size. Sequences that are already ahead are left alone,
+ * apart from the block of ids consumed to check them.
+ */
+@Component
+public class IdSequences {
+
+    /**
+     * The allocation size of the id sequences, used by the sequence generators of the entities.
+     */
+    public static final int ALLOCATION_SIZE = 50;
+
+    private static final Log LOG = LogFactory.getLog(IdSequences.class);
+
+    private static final Map<String, String> TABLES_BY_SEQUENCE = Map.of(
+        "todos_seq", "todos",
+        "assignees_seq", "assignees"
+    );
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    // the schema update creates the sequences while the EntityManagerFactory is built
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    /**
+     * Restarts every sequence whose next value would hand out ids that are already used.
+     * Runs before the web server accepts requests.
+     */
+    @PostConstruct
+    void restartBehindSequences() {
+        TABLES_BY_SEQUENCE.forEach(this::restartIfBehind);
+    }
+
+    private void restartIfBehind(String sequence, String table) {
+        Long maxId = jdbcTemplate.queryForObject("select max(id) from " + table, Long.class);
+        if (maxId == null) {
+            return;
+        }
+        long required = maxId + ALLOCATION_SIZE;
+        Long next = jdbcTemplate.queryForObject("select next value for " + sequence, Long.class);
+        if (next != null && next >= required) {
+            return;
+        }
+        jdbcTemplate.execute("alter sequence " + sequence + " restart with " + required);
+        LOG.info("Restarted " + sequence + " with " + required + " above the largest id " + maxId + " of " + table);
+    }
+}
@@ -0,0 +1,25 @@
+package de.unistuttgart.iste.ese.api;
+
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.converter.cbor.MappingJackson2CborHttpMessageConverter;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+/**
+ * Adds CBOR as a compact binary alternative to JSON, negotiated with Accept: application/cbor.
+ * The CBOR mapper is built from the same builder as the JSON mapper, so both share the
+ * spring.jackson.* settings and modules.
+ */
+@Configuration
+public class JacksonConfiguration {
+
+    @Bean
+    public MappingJackson2CborHttpMessageConverter cborHttpMessageConverter(Jackson2ObjectMapperBuilder builder) {
+        // indentation has no meaning for a binary format
+        return new MappingJackson2CborHttpMessageConverter(builder.factory(new CBORFactory())
+            .featuresToDisable(SerializationFeature.INDENT_OUTPUT)
+            .build());
+    }
+}
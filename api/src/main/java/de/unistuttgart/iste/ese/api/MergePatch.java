@@ -0,0 +1,154 @@
+package de.unistuttgart.iste.ese.api;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Reads the members of a JSON Merge Patch (RFC 7386) document.
+ * A member that is absent leaves the field untouched, a member with the value null removes it.
+ * Members of the wrong type and members that cannot be patched are rejected with 400.
+ */
+public final class MergePatch {
+
+    /**
+     * The media type of JSON Merge Patch documents.
+     */
+    public static final String MEDIA_TYPE = "application/merge-patch+json";
+
+    private final JsonNode document;
+
+    private MergePatch(JsonNode document) {
+        this.document = document;
+    }
+
+    /**
+     * Checks that the document is a JSON object with patchable members only.
+     *
+     * @param document The request body.
+     * @param fields The names of the members that may be patched.
+     * @return The patch.
+     * @throws ResponseStatusException If the document is not an object or contains other members.
+     */
+    public static MergePatch of(JsonNode document, Set<String> fields) {
+        if (document == null || !document.isObject()) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Merge patch must be a JSON object");
+        }
+        Iterator<String> names = document.fieldNames();
+        while (names.hasNext()) {
+            String name = names.next();
+            if (!fields.contains(name)) {
+                throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Field " + name + " cannot be patched");
+            }
+        }
+        return new MergePatch(document);
+    }
+
+    /**
+     * Checks whether the patch contains a member, with a value or null.
+     *
+     * @param field The name of the member.
+     * @return true if the member is present.
+     */
+    public boolean has(String field) {
+        return document.has(field);
+    }
+
+    /**
+     * Returns a string member.
+     *
+     * @param field The name of the member.
+     * @param nullable Whether the member may be null.
+     * @return The value, or null if the member is null.
+     * @throws ResponseStatusException If the member is not a string or null although it must not be.
+     */
+    public String text(String field, boolean nullable) {
+        JsonNode value = value(field, nullable);
+        if (value == null) {
+            return null;
+        }
+        if (!value.isTextual()) {
+            throw invalid(field, "a string");
+        }
+        return value.textValue();
+    }
+
+    /**
+     * Returns a boolean member, which must not be null.
+     *
+     * @param field The name of the member.
+     * @return The value.
+     * @throws ResponseStatusException If the member is not a boolean.
+     */
+    public boolean bool(String field) {
+        JsonNode value = value(field, false);
+        if (!value.isBoolean()) {
+            throw invalid(field, "a boolean");
+        }
+        return value.booleanValue();
+    }
+
+    /**
+     * Returns an integral number member, e.g. epoch milliseconds.
+     *
+     * @param field The name of the member.
+     * @param nullable Whether the member may be null.
+     * @return The value, or null if the member is null.
+     * @throws ResponseStatusException If the member is not an integral number or null although it must not be.
+     */
+    public Long number(String field, boolean nullable) {
+        JsonNode value = value(field, nullable);
+        if (value == null) {
+            return null;
+        }
+        if (!value.canConvertToExactIntegral() || !value.canConvertToLong()) {
+            throw invalid(field, "an integer");
+        }
+        return value.longValue();
+    }
+
+    /**
+     * Returns an array of integral numbers, e.g. ids. Null is read as an empty list.
+     *
+     * @param field The name of the member.
+     * @return The values.
+     * @throws ResponseStatusException If the member is not an array of integral numbers.
+     */
+    public List<Long> numbers(String field) {
+        JsonNode value = document.get(field);
+        List<Long> numbers = new ArrayList<>();
+        if (value == null || value.isNull()) {
+            return numbers;
+        }
+        if (!value.isArray()) {
+            throw invalid(field, "an array of integers");
+        }
+        for (JsonNode element : value) {
+            if (!element.canConvertToExactIntegral() || !element.canConvertToLong()) {
+                throw invalid(field, "an array of integers");
+            }
+            numbers.add(element.longValue());
+        }
+        return numbers;
+    }
+
+    private JsonNode value(String field, boolean nullable) {
+        JsonNode value = document.get(field);
+        if (value == null || value.isNull()) {
+            if (!nullable) {
+                throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Field " + field + " must not be null");
+            }
+            return null;
+        }
+        return value;
+    }
+
+    private static ResponseStatusException invalid(String field, String type) {
+        return new ResponseStatusException(HttpStatus.BAD_REQUEST, "Field " + field + " must be " + type);
+    }
+}
@@ -0,0 +1,73 @@
+package de.unistuttgart.iste.ese.api;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Supplier;
+
+/**
+ * Runs read-modify-write operations on versioned entities in a transaction and retries them
+ * when a concurrent write is detected by the version check, instead of locking rows.
+ * Each attempt reads the entities again: the rollback of the failed attempt clears the
+ * request's persistence context. Conditional requests (If-Match) are not retried, their
+ * conflicts are reported as 412 Precondition Failed.
+ */
+@Component
+public class OptimisticRetry {
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${todos.optimistic-retry.max-attempts:3}")
+    private int maxAttempts;
+
+    @Value("${todos.optimistic-retry.backoff-millis:10}")
+    private long backoffMillis;
+
+    /**
+     * Runs the action in a new transaction, retrying it on optimistic locking conflicts.
+     *
+     * @param operation The name of the operation, used as metric tag.
+     * @param conditional Whether the request carries If-Match, in which case a conflict is not retried.
+     * @param action The read-modify-write operation.
+     * @return The result of the action.
+     * @throws ResponseStatusException With 412 if a conditional request conflicts, with 409 if all attempts conflict.
+     */
+    public <T> T execute(String operation, boolean conditional, Supplier<T> action) {
+        for (int attempt = 1; ; attempt++) {
+            try {
+                return transactionTemplate.execute(status -> action.get());
+            } catch (OptimisticLockingFailureException e) {
+                if (conditional) {
+                    throw new ResponseStatusException(HttpStatus.PRECONDITION_FAILED,
+                        "The resource was modified, reload it and try again");
+                }
+                if (attempt >= maxAttempts) {
+                    throw new ResponseStatusException(HttpStatus.CONFLICT,
+                        "The resource is modified concurrently, try again later");
+                }
+                Counter.builder("optimistic.retries")
+                    .description("Read-modify-write operations retried after a concurrent write")
+                    .tag("operation", operation)
+                    .register(meterRegistry)
+                    .increment();
+                // a jittered, growing pause keeps the competing writers from colliding again
+                if (backoffMillis > 0) {
+                    LockSupport.parkNanos(ThreadLocalRandom.current().nextLong(1, backoffMillis * attempt + 1) * 1_000_000);
+                }
+            }
+        }
+    }
+}
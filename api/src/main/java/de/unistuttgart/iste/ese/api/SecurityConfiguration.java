@@ -0,0 +1,33 @@
+package de.unistuttgart.iste.ese.api;
+
+import org.springframework.boot.actuate.autoconfigure.security.servlet.EndpointRequest;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.security.config.Customizer;
+import org.springframework.security.config.annotation.web.builders.HttpSecurity;
+import org.springframework.security.config.annotation.web.configurers.AbstractHttpConfigurer;
+import org.springframework.security.web.SecurityFilterChain;
+
+/**
+ * Restricts the operational endpoints (flight recordings and admin jobs) to users with the
+ * ADMIN role via HTTP basic authentication. All other endpoints stay public.
+ * The admin user is configured with the spring.security.user.* properties.
+ */
+@Configuration
+public class SecurityConfiguration {
+
+    @Bean
+    public SecurityFilterChain securityFilterChain(HttpSecurity http) throws Exception {
+        return http
+            .authorizeHttpRequests(requests -> requests
+                .requestMatchers(EndpointRequest.to("jfr")).hasRole("ADMIN")
+                .requestMatchers("/api/v1/admin/**").hasRole("ADMIN")
+                .anyRequest().permitAll())
+            .httpBasic(Customizer.withDefaults())
+            // the API is stateless and uses no cookies, so there is no session to protect against CSRF
+            .csrf(AbstractHttpConfigurer::disable)
+            // use the CORS mappings of the WebMvcConfigurer
+            .cors(Customizer.withDefaults())
+            .build();
+    }
+}
@@ -1,19 +1,32 @@
 package de.unistuttgart.iste.ese.api.assignees;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import de.unistuttgart.iste.ese.api.IdSequences;
 import jakarta.persistence.*;
 import jakarta.validation.constraints.Pattern;
 import jakarta.validation.constraints.Size;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.annotations.ColumnDefault;
+import org.hibernate.annotations.DynamicUpdate;
 
 /**
  * Represents an Assignee entity stored in the "assignees" table. 
  * Models a person who can be assigned to todos, with attributes like Id, name, and a validated university email address.
+ * Assignees are read-mostly and kept in the second-level cache. Updates only write the changed columns
+ * and are checked against the version for concurrent writes. The version is sent as ETag, not in the body.
+ * The change number of the last change is indexed for the delta sync.
  */
 @Entity
-@Table(name = "assignees")
+@DynamicUpdate
+@Table(name = "assignees", indexes = @Index(name = "idx_assignees_change_seq_id", columnList = "change_seq, id"))
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
 public class Assignee {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "assignees_seq")
+    @SequenceGenerator(name = "assignees_seq", sequenceName = "assignees_seq", allocationSize = IdSequences.ALLOCATION_SIZE)
     @Column(name = "id")
     private Long id;
 
@@ -25,7 +38,18 @@ public class Assignee {
 
     @Pattern(regexp = "^[\\w.-]+@([a-zA-Z0-9-]+\\.)*uni-stuttgart\\.de$", message = "Email must end with uni-stuttgart.de")
     private String email;
-    
+
+    @Version
+    @ColumnDefault("0")
+    @Column(name = "version", nullable = false)
+    @JsonIgnore
+    private long version;
+
+    // the change number of the transaction that wrote the assignee last, see ChangeSequence
+    @ColumnDefault("0")
+    @Column(name = "change_seq", nullable = false)
+    @JsonIgnore
+    private long changeSeq;
 
     public Assignee(String prename, String name, String email) {
         this.prename = prename;
@@ -35,6 +59,21 @@ public class Assignee {
 
     public Assignee() {}
     
+    @JsonIgnore
+    public long getVersion() {
+        return version;
+    }
+
+    @JsonIgnore
+    public long getChangeSeq() {
+        return changeSeq;
+    }
+
+    @JsonIgnore
+    public void setChangeSeq(long changeSeq) {
+        this.changeSeq = changeSeq;
+    }
+
     public Long getId() {
         return id;
     }
@@ -1,13 +1,23 @@
 package de.unistuttgart.iste.ese.api.assignees;
 
+import com.fasterxml.jackson.databind.JsonNode;
 import de.unistuttgart.iste.ese.api.ApiVersion1;
+import de.unistuttgart.iste.ese.api.MergePatch;
+import de.unistuttgart.iste.ese.api.cache.EntityTags;
+import de.unistuttgart.iste.ese.api.cache.ResponseCache;
+import de.unistuttgart.iste.ese.api.sql.SqlBudget;
+import de.unistuttgart.iste.ese.api.todos.dtos.BulkResultDTO;
 import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.validation.BindingResult;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 import org.springframework.web.server.ResponseStatusException;
-import java.util.List;
 
 /**
  * Handles CRUD operations for Assignees.
@@ -20,6 +30,9 @@ public class AssigneeController {
     @Autowired
     private AssigneeService assigneeService;
 
+    @Autowired
+    private ResponseCache responseCache;
+
     /**
      * Creates a new Assignee by delegating to the createAssignee method in the AssigneeService.
      * Validates the input using @Valid and handles validation errors.
@@ -30,6 +43,7 @@ public class AssigneeController {
      * @throws ResponseStatusException If validation errors are present in the input.
      */
     @PostMapping("/assignees")
+    @SqlBudget(statements = 3)
     @ResponseStatus(HttpStatus.CREATED)
     public Assignee createAssignee(@Valid @RequestBody Assignee assignee, BindingResult bindingResult) {
         if (bindingResult.hasErrors()) {
@@ -39,24 +53,41 @@ public class AssigneeController {
     }
 
     /**
-     * Retrieves all Assignees by calling the getAllAssignees method in the AssigneeService
-     * @return A list of all Assignee objects.
+     * Retrieves all Assignees by calling the getAllAssignees method in the AssigneeService.
+     * The response carries the change version as ETag; if it matches If-None-Match, 304 is returned
+     * without querying the database. Otherwise the serialized response is served from the ResponseCache.
+     *
+     * @param request The request, checked for If-None-Match.
+     * @return The serialized list of all Assignee objects (JSON or CBOR), or null if not modified.
      */
-    @GetMapping("/assignees")
-    public List<Assignee> getAllAssignees() {
-        return assigneeService.getAllAssignees();
+    @GetMapping(value = "/assignees", produces = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_CBOR_VALUE})
+    @SqlBudget(statements = 1)
+    public ResponseEntity<byte[]> getAllAssignees(WebRequest request) {
+        return responseCache.get("assignees", request, () -> ResponseEntity.ok(assigneeService.getAllAssignees()));
     }
 
     /**
      * Retrieves a specific Assignee by its ID by calling the getAssigneeById method in the AssigneeService.
+     * The ETag is the version of the Assignee; send it as If-Match with PUT, PATCH or DELETE
+     * to make the write conditional, or as If-None-Match to receive 304.
      *
      * @param id The ID of the Assignee to retrieve.
-     * @return The Assignee object with the given ID.
+     * @param request The request, checked for If-None-Match.
+     * @return The Assignee object with the given ID, or null if not modified.
      * @throws ResponseStatusException If no Assignee with the given ID is found.
      */
-    @GetMapping("/assignees/{id}")
-    public Assignee getAssigneeById(@PathVariable Long id) {
-        return assigneeService.getAssigneeById(id);
+    @GetMapping(value = "/assignees/{id}", produces = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_CBOR_VALUE})
+    @SqlBudget(statements = 1, rows = 1)
+    public ResponseEntity<Assignee> getAssigneeById(@PathVariable Long id, WebRequest request) {
+        MediaType mediaType = ResponseCache.representationOf(request);
+        Assignee assignee = assigneeService.getAssigneeById(id);
+        String etag = EntityTags.etag(EntityTags.tag(assignee.getVersion()), mediaType);
+        if (request.checkNotModified(etag)) {
+            return null;
+        }
+        return ResponseEntity.ok().eTag(etag).cacheControl(CacheControl.noCache())
+            .contentType(mediaType).header(HttpHeaders.VARY, HttpHeaders.ACCEPT)
+            .body(assignee);
     }
 
     /**
@@ -65,25 +96,66 @@ public class AssigneeController {
      * @param id The ID of the Assignee to update.
      * @param assigneeDetails The updated Assignee details
      * @param bindingResult Contains the validation results.
-     * @return The updated Assignee object
-     * @throws ResponseStatusException If validation errors are present or if no Assignee with the given ID is found.
+     * @param ifMatch The ETag the update is based on, optional.
+     * @return The updated Assignee object, with its new ETag
+     * @throws ResponseStatusException If validation errors are present, if no Assignee with the given ID is found
+     *                                 or if If-Match does not match (412).
      */
     @PutMapping("/assignees/{id}")
-    public Assignee updateAssignee(@PathVariable Long id, @Valid @RequestBody Assignee assigneeDetails, BindingResult bindingResult) {
+    @SqlBudget(statements = 3, rows = 1)
+    public ResponseEntity<Assignee> updateAssignee(@PathVariable Long id, @Valid @RequestBody Assignee assigneeDetails, BindingResult bindingResult,
+                                                   @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
         if (bindingResult.hasErrors()) {
             throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Invalid: " + bindingResult.getAllErrors());
         }
-        return assigneeService.updateAssignee(id, assigneeDetails);
+        return tagged(assigneeService.updateAssignee(id, assigneeDetails, ifMatch));
+    }
+
+    /**
+     * Applies a JSON Merge Patch to an Assignee. Only the fields in the patch are changed.
+     *
+     * @param id The ID of the Assignee to patch.
+     * @param patch The merge patch with prename, name and/or email.
+     * @param ifMatch The ETag the patch is based on, optional.
+     * @return The patched Assignee object, with its new ETag
+     * @throws ResponseStatusException If no Assignee with the given ID is found, the patch is invalid or If-Match does not match (412).
+     */
+    @PatchMapping(value = "/assignees/{id}", consumes = MergePatch.MEDIA_TYPE)
+    @SqlBudget(statements = 3, rows = 1)
+    public ResponseEntity<Assignee> patchAssignee(@PathVariable Long id, @RequestBody JsonNode patch,
+                                                  @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        return tagged(assigneeService.patchAssignee(id, MergePatch.of(patch, AssigneeService.PATCHABLE_FIELDS), ifMatch));
     }
 
     /**
      * Deletes an Assignee identified by its id by calling the deleteAssignee method in the AssigneeService.
      *
      * @param id The ID of the Assignee to delete.
-     * @throws ResponseStatusException If no Assignee with the given ID is found.
+     * @param ifMatch The ETag the deletion is based on, optional.
+     * @throws ResponseStatusException If no Assignee with the given ID is found or If-Match does not match (412).
      */
     @DeleteMapping("/assignees/{id}")
-    public void deleteAssignee(@PathVariable Long id) {
-        assigneeService.deleteAssignee(id);
+    @SqlBudget(statements = 6)
+    public void deleteAssignee(@PathVariable Long id,
+                               @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        assigneeService.deleteAssignee(id, ifMatch);
+    }
+
+    /**
+     * Moves all Todos of an Assignee to another Assignee.
+     *
+     * @param id The ID of the Assignee whose Todos are reassigned.
+     * @param to The ID of the Assignee that takes over the Todos.
+     * @return The number of reassigned Todos.
+     * @throws ResponseStatusException If an Assignee is not found or both IDs are the same.
+     */
+    @PostMapping("/assignees/{id}/reassign")
+    @SqlBudget(statements = 6)
+    public BulkResultDTO reassignTodos(@PathVariable Long id, @RequestParam Long to) {
+        return assigneeService.reassignTodos(id, to);
+    }
+
+    private static ResponseEntity<Assignee> tagged(Assignee assignee) {
+        return ResponseEntity.ok().eTag(EntityTags.etag(EntityTags.tag(assignee.getVersion()), MediaType.APPLICATION_JSON)).body(assignee);
     }
 }
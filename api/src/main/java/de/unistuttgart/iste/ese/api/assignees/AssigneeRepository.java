@@ -1,8 +1,27 @@
 package de.unistuttgart.iste.ese.api.assignees;
 
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import java.util.List;
 
 @Repository
 public interface AssigneeRepository extends JpaRepository<Assignee, Long> {
+
+    /**
+     * Loads a page of the Assignees changed after a position in the change order
+     * with a range scan on the change number and id.
+     *
+     * @param changeSeq The change number of the position.
+     * @param id The id of the position.
+     * @param upTo The inclusive upper bound of the change number.
+     * @param limit The maximum number of Assignees.
+     * @return The changed Assignees ordered by change number and id.
+     */
+    @Query("select a from Assignee a where (a.changeSeq > :changeSeq or (a.changeSeq = :changeSeq and a.id > :id)) "
+        + "and a.changeSeq <= :upTo order by a.changeSeq, a.id")
+    List<Assignee> findChangedAfter(@Param("changeSeq") long changeSeq, @Param("id") long id, @Param("upTo") long upTo,
+                                    Limit limit);
 }
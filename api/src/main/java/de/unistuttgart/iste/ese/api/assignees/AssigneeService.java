@@ -1,13 +1,34 @@
 package de.unistuttgart.iste.ese.api.assignees;
 
-import de.unistuttgart.iste.ese.api.todos.Todo;
+import de.unistuttgart.iste.ese.api.MergePatch;
+import de.unistuttgart.iste.ese.api.OptimisticRetry;
+import de.unistuttgart.iste.ese.api.cache.ChangeVersion;
+import de.unistuttgart.iste.ese.api.cache.EntityTags;
+import de.unistuttgart.iste.ese.api.changes.ChangeFeed;
+import de.unistuttgart.iste.ese.api.changes.ChangeType;
+import de.unistuttgart.iste.ese.api.jfr.AssigneeDeletionEvent;
+import de.unistuttgart.iste.ese.api.metrics.ServiceMetrics;
+import de.unistuttgart.iste.ese.api.sync.ChangePage;
+import de.unistuttgart.iste.ese.api.sync.ChangePosition;
+import de.unistuttgart.iste.ese.api.sync.ChangeSequence;
+import de.unistuttgart.iste.ese.api.sync.Tombstone;
+import de.unistuttgart.iste.ese.api.sync.TombstoneRepository;
 import de.unistuttgart.iste.ese.api.todos.TodoRepository;
+import de.unistuttgart.iste.ese.api.todos.dtos.BulkResultDTO;
+import jakarta.validation.ConstraintViolation;
 import jakarta.validation.Valid;
+import jakarta.validation.Validator;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Limit;
 import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.server.ResponseStatusException;
+import java.util.Date;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
 /**
  * Service for handling business logic related to Assignees.
@@ -22,6 +43,34 @@ public class AssigneeService {
     @Autowired
     private TodoRepository todoRepository;
 
+    @Autowired
+    private ServiceMetrics serviceMetrics;
+
+    @Autowired
+    private ChangeVersion changeVersion;
+
+    @Autowired
+    private Validator validator;
+
+    @Autowired
+    private OptimisticRetry optimisticRetry;
+
+    @Autowired
+    private ChangeFeed changeFeed;
+
+    @Autowired
+    private TombstoneRepository tombstoneRepository;
+
+    @Autowired
+    private ChangeSequence changeSequence;
+
+    private static final String REPOSITORY_TIMER = "assignees.repository";
+
+    /**
+     * The fields of an Assignee that can be changed with a merge patch.
+     */
+    public static final Set<String> PATCHABLE_FIELDS = Set.of("prename", "name", "email");
+
     /**
      * Creates a new Assignee
      *
@@ -29,8 +78,13 @@ public class AssigneeService {
      * @return The created Assignee.
      * @throws ResponseStatusException If the validation fails.
      */
+    @Transactional
     public Assignee createAssignee(@Valid Assignee assignee) {
-        return assigneeRepository.save(assignee);
+        assignee.setChangeSeq(changeSequence.next());
+        Assignee created = serviceMetrics.time(REPOSITORY_TIMER, () -> assigneeRepository.save(assignee), "operation", "create", "method", "save");
+        changeVersion.bump();
+        changeFeed.publish(ChangeType.ASSIGNEE_CREATED, created);
+        return created;
     }
 
     /**
@@ -39,7 +93,27 @@ public class AssigneeService {
      * @return A list of all Assignees.
      */
     public List<Assignee> getAllAssignees() {
-        return assigneeRepository.findAll();
+        return serviceMetrics.time(REPOSITORY_TIMER, () -> assigneeRepository.findAll(), "operation", "list", "method", "findAll");
+    }
+
+    /**
+     * Retrieves a page of the Assignees changed after a position in the change order, for the delta sync.
+     * The page is read with one extra row to detect a next page.
+     *
+     * @param after The position of the last Assignee of the previous page.
+     * @param upTo The inclusive upper bound of the change number.
+     * @param limit The maximum number of Assignees to return.
+     * @return The changed Assignees and the position of the last one if there are more.
+     */
+    public ChangePage<Assignee> getAssigneesChangedAfter(ChangePosition after, long upTo, int limit) {
+        List<Assignee> rows = serviceMetrics.time(REPOSITORY_TIMER,
+            () -> assigneeRepository.findChangedAfter(after.changeSeq(), after.id(), upTo, Limit.of(limit + 1)),
+            "operation", "sync", "method", "findChangedAfter");
+        if (rows.size() <= limit) {
+            return new ChangePage<>(rows, null);
+        }
+        Assignee last = rows.get(limit - 1);
+        return new ChangePage<>(rows.subList(0, limit), new ChangePosition(last.getChangeSeq(), last.getId()));
     }
 
     /**
@@ -50,43 +124,163 @@ public class AssigneeService {
      * @throws ResponseStatusException If the Assignee is not found.
      */
     public Assignee getAssigneeById(Long id) {
-        return assigneeRepository.findById(id)
+        return serviceMetrics.time(REPOSITORY_TIMER, () -> assigneeRepository.findById(id), "operation", "get", "method", "findById")
             .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Assignee not found"));
     }
 
     /**
-     * Updates an existing Assignee identified by its Id
+     * Updates an existing Assignee identified by its Id.
+     * A concurrent write is detected by the version check; the update is then retried on the new state,
+     * or rejected with 412 if the request was conditional.
      *
      * @param id The Id of the Assignee to update.
      * @param assigneeDetails The new details for the Assignee.
+     * @param ifMatch The If-Match header, or null to update unconditionally.
      * @return The updated Assignee
-     * @throws ResponseStatusException If the Assignee is not found or validation fails
+     * @throws ResponseStatusException If the Assignee is not found, validation fails or If-Match does not match
      */
-    public Assignee updateAssignee(Long id, @Valid Assignee assigneeDetails) {
-        Assignee assignee = assigneeRepository.findById(id)
-            .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Assignee not found"));
-        assignee.setPrename(assigneeDetails.getPrename());
-        assignee.setName(assigneeDetails.getName());
-        assignee.setEmail(assigneeDetails.getEmail());
-        return assigneeRepository.save(assignee);
+    public Assignee updateAssignee(Long id, @Valid Assignee assigneeDetails, String ifMatch) {
+        return optimisticRetry.execute("updateAssignee", ifMatch != null, () -> {
+            Assignee assignee = serviceMetrics.time(REPOSITORY_TIMER, () -> assigneeRepository.findById(id), "operation", "update", "method", "findById")
+                .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Assignee not found"));
+            EntityTags.checkIfMatch(ifMatch, EntityTags.tag(assignee.getVersion()));
+            assignee.setPrename(assigneeDetails.getPrename());
+            assignee.setName(assigneeDetails.getName());
+            assignee.setEmail(assigneeDetails.getEmail());
+            assignee.setChangeSeq(changeSequence.next());
+            Assignee updated = serviceMetrics.time(REPOSITORY_TIMER, () -> assigneeRepository.save(assignee), "operation", "update", "method", "save");
+            // todos embed their assignees, so this changes them as well
+            changeVersion.bump();
+            changeFeed.publish(ChangeType.ASSIGNEE_UPDATED, updated);
+            return updated;
+        });
+    }
+
+    /**
+     * Applies a JSON Merge Patch to an Assignee.
+     * Only the fields in the patch are changed, and only if their value differs, so the update
+     * statement contains just these columns. Concurrent writes are handled like for updateAssignee.
+     *
+     * @param id The Id of the Assignee to patch.
+     * @param patch The merge patch with prename, name and/or email.
+     * @param ifMatch The If-Match header, or null to patch unconditionally.
+     * @return The patched Assignee
+     * @throws ResponseStatusException If the Assignee is not found, the patch is invalid or If-Match does not match
+     */
+    public Assignee patchAssignee(Long id, MergePatch patch, String ifMatch) {
+        Map<String, String> values = new LinkedHashMap<>();
+        for (String field : PATCHABLE_FIELDS) {
+            if (patch.has(field)) {
+                String value = patch.text(field, false);
+                Set<ConstraintViolation<Assignee>> violations = validator.validateValue(Assignee.class, field, value);
+                if (!violations.isEmpty()) {
+                    throw new ResponseStatusException(HttpStatus.BAD_REQUEST, violations.iterator().next().getMessage());
+                }
+                values.put(field, value);
+            }
+        }
+
+        return optimisticRetry.execute("patchAssignee", ifMatch != null, () -> {
+            Assignee assignee = serviceMetrics.time(REPOSITORY_TIMER, () -> assigneeRepository.findById(id), "operation", "patch", "method", "findById")
+                .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Assignee not found"));
+            EntityTags.checkIfMatch(ifMatch, EntityTags.tag(assignee.getVersion()));
+
+            boolean changed = false;
+            if (values.containsKey("prename") && !values.get("prename").equals(assignee.getPrename())) {
+                assignee.setPrename(values.get("prename"));
+                changed = true;
+            }
+            if (values.containsKey("name") && !values.get("name").equals(assignee.getName())) {
+                assignee.setName(values.get("name"));
+                changed = true;
+            }
+            if (values.containsKey("email") && !values.get("email").equals(assignee.getEmail())) {
+                assignee.setEmail(values.get("email"));
+                changed = true;
+            }
+            if (!changed) {
+                return assignee;
+            }
+            assignee.setChangeSeq(changeSequence.next());
+            Assignee patched = serviceMetrics.time(REPOSITORY_TIMER, () -> assigneeRepository.save(assignee), "operation", "patch", "method", "save");
+            // todos embed their assignees, so this changes them as well
+            changeVersion.bump();
+            changeFeed.publish(ChangeType.ASSIGNEE_UPDATED, patched);
+            return patched;
+        });
     }
 
     /**
-     * Deletes an Assignee by their Id and updates associated Todos
+     * Deletes an Assignee by their Id and removes it from all Todos.
+     * The assignee is removed from the Todos with a single statement on the join table,
+     * however many Todos it is assigned to. The versions of these Todos are incremented first,
+     * so concurrent updates of them are retried instead of re-adding the assignee. If the Assignee
+     * itself is changed concurrently, the whole deletion is retried. A tombstone records the deletion
+     * for the delta sync, which reports the Todos as changed.
      *
      * @param id The ID of the Assignee to delete.
-     * @throws ResponseStatusException If the Assignee is not found.
+     * @param ifMatch The If-Match header, or null to delete unconditionally.
+     * @throws ResponseStatusException If the Assignee is not found or If-Match does not match.
      */
-    public void deleteAssignee(Long id) {
-        Assignee assignee = assigneeRepository.findById(id)
-            .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Assignee not found"));
+    public void deleteAssignee(Long id, String ifMatch) {
+        AssigneeDeletionEvent event = new AssigneeDeletionEvent();
+        event.begin();
+        int affectedTodos = optimisticRetry.execute("deleteAssignee", ifMatch != null, () -> {
+            Assignee assignee = serviceMetrics.time(REPOSITORY_TIMER, () -> assigneeRepository.findById(id), "operation", "delete", "method", "findById")
+                .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Assignee not found"));
+            EntityTags.checkIfMatch(ifMatch, EntityTags.tag(assignee.getVersion()));
+
+            long changeSeq = changeSequence.next();
+            serviceMetrics.time(REPOSITORY_TIMER,
+                () -> todoRepository.incrementVersionByAssigneeId(id, changeSeq), "operation", "delete", "method", "incrementVersionByAssigneeId");
+            int removed = serviceMetrics.time(REPOSITORY_TIMER,
+                () -> todoRepository.removeAssigneeFromAllTodos(id), "operation", "delete", "method", "removeAssigneeFromAllTodos");
+            serviceMetrics.time(REPOSITORY_TIMER, () -> assigneeRepository.delete(assignee), "operation", "delete", "method", "delete");
+            serviceMetrics.time(REPOSITORY_TIMER, () -> tombstoneRepository.save(new Tombstone(Tombstone.ASSIGNEE, id, new Date(), changeSeq)),
+                "operation", "delete", "method", "saveTombstone");
+            changeVersion.bump();
+            changeFeed.publishDeleted(ChangeType.ASSIGNEE_DELETED, id);
+            return removed;
+        });
+        if (event.shouldCommit()) {
+            event.assigneeId = id;
+            event.affectedTodos = affectedTodos;
+            event.commit();
+        }
+    }
+
+    /**
+     * Moves all Todos of one Assignee to another with two statements on the join table,
+     * after incrementing the versions of these Todos like deleteAssignee.
+     * Todos that already have the new Assignee just lose the old one.
+     *
+     * @param id The ID of the Assignee whose Todos are reassigned.
+     * @param toId The ID of the Assignee that takes over the Todos.
+     * @return The number of Todos that were reassigned.
+     * @throws ResponseStatusException If an Assignee is not found or both IDs are the same.
+     */
+    @Transactional
+    public BulkResultDTO reassignTodos(Long id, Long toId) {
+        if (id.equals(toId)) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Todos cannot be reassigned to the same assignee");
+        }
+        for (Long assigneeId : List.of(id, toId)) {
+            serviceMetrics.time(REPOSITORY_TIMER, () -> assigneeRepository.findById(assigneeId), "operation", "reassign", "method", "findById")
+                .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Assignee not found"));
+        }
 
-        List<Todo> correspondingTodos = todoRepository.findAllByAssigneeList(assignee);
-        for (Todo todo : correspondingTodos) {
-            todo.getAssigneeList().remove(assignee);
-            todoRepository.save(todo);
+        long changeSeq = changeSequence.next();
+        serviceMetrics.time(REPOSITORY_TIMER,
+            () -> todoRepository.incrementVersionByAssigneeId(id, changeSeq), "operation", "reassign", "method", "incrementVersionByAssigneeId");
+        int moved = serviceMetrics.time(REPOSITORY_TIMER,
+            () -> todoRepository.reassignTodos(id, toId), "operation", "reassign", "method", "reassignTodos");
+        // what is left are the todos that already had the new assignee
+        int merged = serviceMetrics.time(REPOSITORY_TIMER,
+            () -> todoRepository.removeAssigneeFromAllTodos(id), "operation", "reassign", "method", "removeAssigneeFromAllTodos");
+        if (moved + merged > 0) {
+            changeVersion.bump();
+            changeFeed.publishResync();
         }
-        assigneeRepository.delete(assignee);
+        return new BulkResultDTO(moved + merged);
     }
-    
 }
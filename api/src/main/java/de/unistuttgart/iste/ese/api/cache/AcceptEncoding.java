@@ -0,0 +1,58 @@
+package de.unistuttgart.iste.ese.api.cache;
+
+import java.util.Locale;
+
+/**
+ * Evaluates the Accept-Encoding header of a request. The header lists content codings with optional
+ * quality values; a coding with q=0 is refused, and "*" stands for every coding not listed explicitly.
+ */
+public final class AcceptEncoding {
+
+    private AcceptEncoding() {
+    }
+
+    /**
+     * Checks whether a response may be compressed with gzip.
+     *
+     * @param header The Accept-Encoding header, or null if the request has none.
+     * @return true if gzip, or "*" without an entry for gzip, is accepted with a quality above 0.
+     */
+    public static boolean acceptsGzip(String header) {
+        if (header == null) {
+            return false;
+        }
+        Double gzip = null;
+        Double any = null;
+        for (String entry : header.split(",")) {
+            String[] parts = entry.split(";");
+            String coding = parts[0].trim().toLowerCase(Locale.ROOT);
+            double quality = quality(parts);
+            if (coding.equals("gzip") || coding.equals("x-gzip")) {
+                gzip = gzip == null ? quality : Math.max(gzip, quality);
+            } else if (coding.equals("*")) {
+                any = quality;
+            }
+        }
+        if (gzip != null) {
+            return gzip > 0;
+        }
+        return any != null && any > 0;
+    }
+
+    /**
+     * Returns the q parameter of a coding, 1 if it has none and 0 if it is malformed.
+     */
+    private static double quality(String[] parts) {
+        for (int i = 1; i < parts.length; i++) {
+            String parameter = parts[i].trim();
+            if (parameter.length() > 1 && Character.toLowerCase(parameter.charAt(0)) == 'q' && parameter.charAt(1) == '=') {
+                try {
+                    return Double.parseDouble(parameter.substring(2).trim());
+                } catch (NumberFormatException e) {
+                    return 0;
+                }
+            }
+        }
+        return 1;
+    }
+}
@@ -0,0 +1,67 @@
+package de.unistuttgart.iste.ese.api.cache;
+
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A monotonically increasing version of all Todo and Assignee data, used as ETag of the read endpoints.
+ * Every write path bumps the version after its changes are committed, so a response computed from
+ * data read after reading version v is never served as current for a later version.
+ * The version starts at the startup time in microseconds, so ETags of an earlier run do not match.
+ * It is kept in memory and therefore only valid for a single instance of the API.
+ */
+@Component
+public class ChangeVersion {
+
+    private final AtomicLong version = new AtomicLong(System.currentTimeMillis() * 1000);
+
+    /**
+     * Returns the current version.
+     *
+     * @return The version.
+     */
+    public long current() {
+        return version.get();
+    }
+
+    /**
+     * Returns the strong ETag of a version.
+     *
+     * @param version The version.
+     * @return The quoted ETag.
+     */
+    public static String etag(long version) {
+        return "\"" + Long.toString(version, Character.MAX_RADIX) + "\"";
+    }
+
+    /**
+     * Returns the strong ETag of a version in a representation other than JSON, which differs from the JSON one.
+     *
+     * @param version The version.
+     * @param mediaType The media type of the representation.
+     * @return The quoted ETag.
+     */
+    public static String etag(long version, MediaType mediaType) {
+        return EntityTags.etag(Long.toString(version, Character.MAX_RADIX), mediaType);
+    }
+
+    /**
+     * Increments the version after the current transaction commits, or immediately if there is none.
+     */
+    public void bump() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    version.incrementAndGet();
+                }
+            });
+        } else {
+            version.incrementAndGet();
+        }
+    }
+}
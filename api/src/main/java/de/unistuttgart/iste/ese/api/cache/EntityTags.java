@@ -0,0 +1,70 @@
+package de.unistuttgart.iste.ese.api.cache;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.web.server.ResponseStatusException;
+
+/**
+ * Builds the ETags of single resources from their entity versions and checks If-Match preconditions.
+ * A tag is an opaque base36 value; the ETag of a representation other than JSON carries the media
+ * subtype as suffix, so JSON and CBOR responses have different strong ETags but match the same If-Match.
+ */
+public final class EntityTags {
+
+    private EntityTags() {
+    }
+
+    /**
+     * Returns the tag of a single entity version.
+     *
+     * @param version The entity version.
+     * @return The unquoted tag.
+     */
+    public static String tag(long version) {
+        return Long.toString(version, Character.MAX_RADIX);
+    }
+
+    /**
+     * Returns the strong ETag of a tag in the given representation.
+     *
+     * @param tag The unquoted tag.
+     * @param mediaType The media type of the representation.
+     * @return The quoted ETag.
+     */
+    public static String etag(String tag, MediaType mediaType) {
+        if (mediaType == null || MediaType.APPLICATION_JSON.equalsTypeAndSubtype(mediaType)) {
+            return "\"" + tag + "\"";
+        }
+        return "\"" + tag + "-" + mediaType.getSubtype() + "\"";
+    }
+
+    /**
+     * Checks an If-Match header against the current tag of a resource.
+     * The header matches if it is "*" or lists a strong ETag of the current tag in any representation.
+     *
+     * @param ifMatch The If-Match header, or null if the request is unconditional.
+     * @param tag The current unquoted tag.
+     * @throws ResponseStatusException With 412 if the header does not match.
+     */
+    public static void checkIfMatch(String ifMatch, String tag) {
+        if (ifMatch == null || ifMatch.isBlank()) {
+            return;
+        }
+        for (String candidate : ifMatch.split(",")) {
+            candidate = candidate.trim();
+            if (candidate.equals("*")) {
+                return;
+            }
+            // weak tags never match If-Match
+            if (candidate.length() < 2 || !candidate.startsWith("\"") || !candidate.endsWith("\"")) {
+                continue;
+            }
+            String value = candidate.substring(1, candidate.length() - 1);
+            int suffix = value.indexOf('-');
+            if ((suffix < 0 ? value : value.substring(0, suffix)).equals(tag)) {
+                return;
+            }
+        }
+        throw new ResponseStatusException(HttpStatus.PRECONDITION_FAILED, "The resource was modified, reload it and try again");
+    }
+}
@@ -0,0 +1,274 @@
+package de.unistuttgart.iste.ese.api.cache;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.AsyncCache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.InvalidMediaTypeException;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.http.converter.cbor.MappingJackson2CborHttpMessageConverter;
+import org.springframework.stereotype.Component;
+import org.springframework.web.context.request.NativeWebRequest;
+import org.springframework.web.context.request.WebRequest;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Serves the list endpoints from pre-serialized responses.
+ * Responses are cached per endpoint, query parameters and ChangeVersion, so the next write makes
+ * them unreachable; entries of older versions are dropped when the first response of a new version
+ * is computed. Concurrent identical requests are coalesced: the first one computes the response on
+ * its own thread while the others wait for its result instead of querying the database themselves.
+ * Responses are negotiated between JSON and CBOR by the Accept header, serialized once with the
+ * application's ObjectMapper or the CBOR mapper and, if todos.response-cache.gzip is set, compressed
+ * once for clients accepting gzip. Every response, including 304, varies by Accept and Accept-Encoding.
+ */
+@Component
+public class ResponseCache {
+
+    private static final int GZIP_MIN_BYTES = 1024;
+
+    private static final String VARY = HttpHeaders.ACCEPT + ", " + HttpHeaders.ACCEPT_ENCODING;
+
+    private record Key(String name, String query, MediaType mediaType, long version) {
+    }
+
+    private record CachedResponse(byte[] body, byte[] gzip, HttpHeaders headers) {
+    }
+
+    /**
+     * How the requests of an endpoint were served.
+     */
+    private static final class Stats {
+        final AtomicLong computed = new AtomicLong();
+        final AtomicLong coalesced = new AtomicLong();
+        final AtomicLong hits = new AtomicLong();
+
+        double coalescingRatio() {
+            long joined = coalesced.get();
+            long total = joined + computed.get();
+            return total == 0 ? 0 : (double) joined / total;
+        }
+    }
+
+    @Autowired
+    private ChangeVersion changeVersion;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private MappingJackson2CborHttpMessageConverter cborConverter;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${todos.response-cache.max-bytes:67108864}")
+    private long maxBytes;
+
+    @Value("${todos.response-cache.gzip:true}")
+    private boolean gzip;
+
+    private AsyncCache<Key, CachedResponse> cache;
+
+    private final AtomicInteger waiters = new AtomicInteger();
+
+    private final Map<String, Stats> stats = new ConcurrentHashMap<>();
+
+    /**
+     * Creates the cache and registers the waiter gauge.
+     */
+    @PostConstruct
+    void start() {
+        cache = Caffeine.newBuilder()
+            .maximumWeight(maxBytes)
+            .<Key, CachedResponse>weigher((key, response) ->
+                response.body().length + (response.gzip() != null ? response.gzip().length : 0))
+            .buildAsync();
+        Gauge.builder("responses.coalesced.waiters", waiters, AtomicInteger::get)
+            .description("Requests currently waiting for an identical in-flight request")
+            .register(meterRegistry);
+    }
+
+    /**
+     * Answers a GET request of a list endpoint with a cached, in-flight or newly computed response.
+     * Sends the change version as ETag and answers a matching If-None-Match with 304.
+     *
+     * @param name The name of the endpoint, used as cache key and metric tag.
+     * @param request The request, whose query parameters are part of the cache key.
+     * @param loader Computes the response body and headers if no identical response is cached or in flight.
+     * @return The response with the serialized body, or null if not modified.
+     */
+    public ResponseEntity<byte[]> get(String name, WebRequest request, Supplier<ResponseEntity<?>> loader) {
+        long version = changeVersion.current();
+        MediaType mediaType = representationOf(request);
+        String etag = ChangeVersion.etag(version, mediaType);
+        if (request.checkNotModified(etag)) {
+            // the 304 is written without a ResponseEntity, so shared caches still need to learn what it varies by
+            if (request instanceof NativeWebRequest nativeRequest) {
+                HttpServletResponse servletResponse = nativeRequest.getNativeResponse(HttpServletResponse.class);
+                if (servletResponse != null) {
+                    servletResponse.setHeader(HttpHeaders.VARY, VARY);
+                }
+            }
+            return null;
+        }
+
+        CachedResponse cached = lookup(new Key(name, queryOf(request), mediaType, version), loader);
+        boolean compressed = cached.gzip() != null && AcceptEncoding.acceptsGzip(request.getHeader(HttpHeaders.ACCEPT_ENCODING));
+
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok()
+            .headers(cached.headers())
+            .eTag(etag)
+            .cacheControl(CacheControl.noCache())
+            .contentType(mediaType)
+            .header(HttpHeaders.VARY, VARY);
+        if (compressed) {
+            response.header(HttpHeaders.CONTENT_ENCODING, "gzip");
+        }
+        return response.body(compressed ? cached.gzip() : cached.body());
+    }
+
+    /**
+     * Chooses the representation of a response by the Accept header: CBOR if it is explicitly
+     * accepted with a higher quality than JSON, JSON otherwise.
+     *
+     * @param request The request.
+     * @return application/cbor or application/json.
+     */
+    public static MediaType representationOf(WebRequest request) {
+        String accept = request.getHeader(HttpHeaders.ACCEPT);
+        if (accept == null) {
+            return MediaType.APPLICATION_JSON;
+        }
+        MediaType best = MediaType.APPLICATION_JSON;
+        double bestQuality = -1;
+        try {
+            for (MediaType type : MediaType.parseMediaTypes(accept)) {
+                boolean cbor = MediaType.APPLICATION_CBOR.equalsTypeAndSubtype(type);
+                if ((cbor || type.isCompatibleWith(MediaType.APPLICATION_JSON)) && type.getQualityValue() > bestQuality) {
+                    best = cbor ? MediaType.APPLICATION_CBOR : MediaType.APPLICATION_JSON;
+                    bestQuality = type.getQualityValue();
+                }
+            }
+        } catch (InvalidMediaTypeException e) {
+            return MediaType.APPLICATION_JSON;
+        }
+        return best;
+    }
+
+    private CachedResponse lookup(Key key, Supplier<ResponseEntity<?>> loader) {
+        Stats endpointStats = stats.computeIfAbsent(key.name(), this::registerStats);
+        CompletableFuture<CachedResponse> flight = new CompletableFuture<>();
+        CompletableFuture<CachedResponse> existing = cache.asMap().putIfAbsent(key, flight);
+
+        if (existing == null) {
+            endpointStats.computed.incrementAndGet();
+            cache.asMap().keySet().removeIf(other -> other.version() < key.version());
+            try {
+                flight.complete(serialize(loader.get(), key.mediaType()));
+            } catch (RuntimeException | Error e) {
+                // failed responses are removed from the cache, the waiters see the same exception
+                flight.completeExceptionally(e);
+                throw e;
+            }
+            return flight.join();
+        }
+
+        if (existing.isDone()) {
+            endpointStats.hits.incrementAndGet();
+            return join(existing);
+        }
+        endpointStats.coalesced.incrementAndGet();
+        waiters.incrementAndGet();
+        try {
+            return join(existing);
+        } finally {
+            waiters.decrementAndGet();
+        }
+    }
+
+    private static CachedResponse join(CompletableFuture<CachedResponse> future) {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+
+    private CachedResponse serialize(ResponseEntity<?> response, MediaType mediaType) {
+        ObjectMapper mapper = MediaType.APPLICATION_CBOR.equals(mediaType) ? cborConverter.getObjectMapper() : objectMapper;
+        try {
+            byte[] body = mapper.writeValueAsBytes(response.getBody());
+            return new CachedResponse(body, gzip && body.length >= GZIP_MIN_BYTES ? compress(body) : null, response.getHeaders());
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Could not serialize the response", e);
+        }
+    }
+
+    private static byte[] compress(byte[] bytes) {
+        ByteArrayOutputStream buffer = new ByteArrayOutputStream(bytes.length / 4);
+        try (GZIPOutputStream gzipStream = new GZIPOutputStream(buffer)) {
+            gzipStream.write(bytes);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return buffer.toByteArray();
+    }
+
+    private static String queryOf(WebRequest request) {
+        // sorted, so the order of the parameters does not matter
+        StringBuilder query = new StringBuilder();
+        new TreeMap<>(request.getParameterMap()).forEach((parameter, values) -> {
+            for (String value : values) {
+                query.append(parameter).append('=').append(value).append('&');
+            }
+        });
+        return query.toString();
+    }
+
+    private Stats registerStats(String name) {
+        Stats endpointStats = new Stats();
+        FunctionCounter.builder("responses.cache.requests", endpointStats.computed, AtomicLong::get)
+            .description("List requests by how they were served")
+            .tags("endpoint", name, "result", "computed")
+            .register(meterRegistry);
+        FunctionCounter.builder("responses.cache.requests", endpointStats.coalesced, AtomicLong::get)
+            .description("List requests by how they were served")
+            .tags("endpoint", name, "result", "coalesced")
+            .register(meterRegistry);
+        FunctionCounter.builder("responses.cache.requests", endpointStats.hits, AtomicLong::get)
+            .description("List requests by how they were served")
+            .tags("endpoint", name, "result", "hit")
+            .register(meterRegistry);
+        Gauge.builder("responses.coalescing.ratio", endpointStats, Stats::coalescingRatio)
+            .description("Share of computed or coalesced list requests that waited for an identical in-flight request")
+            .tag("endpoint", name)
+            .register(meterRegistry);
+        return endpointStats;
+    }
+}
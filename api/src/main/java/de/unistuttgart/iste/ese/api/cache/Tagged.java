@@ -0,0 +1,10 @@
+package de.unistuttgart.iste.ese.api.cache;
+
+/**
+ * A response body together with the tag of the entity version it was built from.
+ *
+ * @param body The response body.
+ * @param tag The unquoted tag, see EntityTags.
+ */
+public record Tagged<T>(T body, String tag) {
+}
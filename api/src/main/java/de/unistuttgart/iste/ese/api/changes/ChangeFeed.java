@@ -0,0 +1,315 @@
+package de.unistuttgart.iste.ese.api.changes;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.Iterator;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Publishes the changes of Todos and Assignees to subscribed clients as server-sent events,
+ * so they can update their data instead of loading it again after every change.
+ * <p>
+ * Events are published after the transaction of the change commits. They are numbered with a
+ * sequence that starts at the startup time in microseconds, like the ChangeVersion, and the last
+ * events are kept in a ring buffer: a client that reconnects with Last-Event-ID gets the events it
+ * missed, or a resync event if they are no longer buffered or were published by an earlier run.
+ * <p>
+ * Each subscriber has a bounded buffer that is sent by its own virtual thread, so a slow client
+ * never blocks the writing requests or the other subscribers. A subscriber whose buffer overflows
+ * is disconnected and resumes from the ring buffer when it reconnects. Heartbeat comments keep idle
+ * connections open through proxies and detect closed ones.
+ * The feed is kept in memory and therefore only covers the changes of a single instance of the API.
+ */
+@Component
+public class ChangeFeed {
+
+    /**
+     * The payload of deleted events.
+     *
+     * @param id The id of the deleted resource.
+     */
+    public record Deleted(long id) {
+    }
+
+    private record Event(long id, String name, String data) {
+    }
+
+    private static final Event HEARTBEAT = new Event(0, null, null);
+
+    private static final String RESYNC_DATA = "{}";
+
+    private static final class Subscriber {
+        final SseEmitter emitter;
+        final BlockingQueue<Event> buffer;
+        final AtomicBoolean sending = new AtomicBoolean();
+        volatile boolean evicted;
+        boolean completed;
+
+        Subscriber(SseEmitter emitter, int bufferSize) {
+            this.emitter = emitter;
+            this.buffer = new ArrayBlockingQueue<>(bufferSize);
+        }
+    }
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${todos.changes.buffer-size:64}")
+    private int bufferSize;
+
+    @Value("${todos.changes.replay-size:512}")
+    private int replaySize;
+
+    @Value("${todos.changes.heartbeat-seconds:15}")
+    private long heartbeatSeconds;
+
+    @Value("${todos.changes.timeout-minutes:30}")
+    private long timeoutMinutes;
+
+    @Value("${todos.changes.reconnect-millis:3000}")
+    private long reconnectMillis;
+
+    private final Set<Subscriber> subscribers = ConcurrentHashMap.newKeySet();
+
+    private final ArrayDeque<Event> ring = new ArrayDeque<>();
+
+    private long sequence = System.currentTimeMillis() * 1000;
+
+    private final ExecutorService senders =
+        Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("todo-changes-", 0).factory());
+
+    private final ScheduledExecutorService heartbeats =
+        Executors.newSingleThreadScheduledExecutor(Thread.ofPlatform().name("todo-changes-heartbeat").daemon().factory());
+
+    private Counter evictedCounter;
+
+    /**
+     * Registers the metrics and starts the heartbeats.
+     */
+    @PostConstruct
+    void start() {
+        Gauge.builder("todos.changes.subscribers", subscribers, Set::size)
+            .description("Clients subscribed to the change feed")
+            .register(meterRegistry);
+        evictedCounter = Counter.builder("todos.changes.evicted")
+            .description("Subscribers disconnected because they did not keep up with the change feed")
+            .register(meterRegistry);
+        heartbeats.scheduleAtFixedRate(this::heartbeat, heartbeatSeconds, heartbeatSeconds, TimeUnit.SECONDS);
+    }
+
+    /**
+     * Disconnects all subscribers and stops the threads.
+     */
+    @PreDestroy
+    void stop() {
+        heartbeats.shutdownNow();
+        for (Subscriber subscriber : subscribers) {
+            evict(subscriber);
+        }
+        senders.shutdown();
+    }
+
+    /**
+     * Publishes a change after the current transaction commits, or immediately if there is none.
+     * The data is serialized right away, while lazy associations can still be loaded.
+     *
+     * @param type The type of the change.
+     * @param data The new representation of the resource, or a Deleted with its id.
+     */
+    public void publish(ChangeType type, Object data) {
+        String json;
+        try {
+            json = objectMapper.writeValueAsString(data);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Could not serialize the " + type.eventName() + " event", e);
+        }
+        afterCommit(() -> append(type.eventName(), json));
+    }
+
+    /**
+     * Publishes the deletion of a resource after the current transaction commits.
+     *
+     * @param type The type of the change, one of the deleted types.
+     * @param id The id of the deleted resource.
+     */
+    public void publishDeleted(ChangeType type, long id) {
+        publish(type, new Deleted(id));
+    }
+
+    /**
+     * Tells all subscribers to load the data again after the current transaction commits.
+     * Used for bulk changes, which would otherwise flood the subscriber buffers.
+     */
+    public void publishResync() {
+        afterCommit(() -> append(ChangeType.RESYNC.eventName(), RESYNC_DATA));
+    }
+
+    /**
+     * Subscribes a client to the feed.
+     * After the replayed events, a frame with the current event id is sent, so a client that
+     * reconnects later resumes from there even if no change happened in the meantime.
+     *
+     * @param lastEventId The Last-Event-ID header of a reconnecting client, or null.
+     * @return The emitter of the event stream.
+     */
+    public SseEmitter subscribe(String lastEventId) {
+        SseEmitter emitter = new SseEmitter(TimeUnit.MINUTES.toMillis(timeoutMinutes));
+        Subscriber subscriber = new Subscriber(emitter, bufferSize);
+        emitter.onCompletion(() -> subscribers.remove(subscriber));
+        emitter.onError(e -> subscribers.remove(subscriber));
+        // the client reconnects with its Last-Event-ID and continues where this stream ended
+        emitter.onTimeout(emitter::complete);
+
+        synchronized (this) {
+            replay(subscriber, lastEventId);
+            subscriber.buffer.add(new Event(sequence, null, null));
+            subscribers.add(subscriber);
+        }
+        send(subscriber);
+        return emitter;
+    }
+
+    /**
+     * Queues the events the client missed since lastEventId, or a resync event if they are
+     * no longer buffered, don't fit into the subscriber buffer or the id is from an earlier run.
+     */
+    private void replay(Subscriber subscriber, String lastEventId) {
+        if (lastEventId == null || lastEventId.isBlank()) {
+            return;
+        }
+        long missed;
+        try {
+            missed = sequence - Long.parseLong(lastEventId.trim());
+        } catch (NumberFormatException e) {
+            missed = -1;
+        }
+        if (missed < 0 || missed > ring.size() || missed >= bufferSize) {
+            subscriber.buffer.add(new Event(sequence, ChangeType.RESYNC.eventName(), RESYNC_DATA));
+            return;
+        }
+        Iterator<Event> events = ring.descendingIterator();
+        ArrayDeque<Event> replayed = new ArrayDeque<>();
+        for (long i = 0; i < missed; i++) {
+            replayed.addFirst(events.next());
+        }
+        subscriber.buffer.addAll(replayed);
+    }
+
+    private synchronized void append(String name, String data) {
+        Event event = new Event(++sequence, name, data);
+        if (ring.size() == replaySize) {
+            ring.removeFirst();
+        }
+        ring.addLast(event);
+        for (Subscriber subscriber : subscribers) {
+            if (subscriber.buffer.offer(event)) {
+                send(subscriber);
+            } else {
+                evict(subscriber);
+            }
+        }
+    }
+
+    private void heartbeat() {
+        for (Subscriber subscriber : subscribers) {
+            // a subscriber with queued events gets data soon anyway
+            if (subscriber.buffer.isEmpty() && subscriber.buffer.offer(HEARTBEAT)) {
+                send(subscriber);
+            }
+        }
+    }
+
+    /**
+     * Disconnects a subscriber that cannot keep up. The emitter is completed by its sender,
+     * which may still be blocked writing to the client.
+     */
+    private void evict(Subscriber subscriber) {
+        if (subscribers.remove(subscriber)) {
+            evictedCounter.increment();
+        }
+        subscriber.evicted = true;
+        subscriber.buffer.clear();
+        send(subscriber);
+    }
+
+    /**
+     * Starts the sender of a subscriber unless it is running already.
+     */
+    private void send(Subscriber subscriber) {
+        if (subscriber.sending.compareAndSet(false, true)) {
+            senders.execute(() -> drain(subscriber));
+        }
+    }
+
+    private void drain(Subscriber subscriber) {
+        do {
+            Event event;
+            while (!subscriber.evicted && (event = subscriber.buffer.poll()) != null) {
+                try {
+                    subscriber.emitter.send(toSse(event));
+                } catch (IOException | IllegalStateException e) {
+                    // the client is gone or the stream completed, the container cleans up the request
+                    subscribers.remove(subscriber);
+                    subscriber.buffer.clear();
+                    subscriber.completed = true;
+                }
+            }
+            if (subscriber.evicted && !subscriber.completed) {
+                subscriber.completed = true;
+                subscriber.emitter.complete();
+            }
+            subscriber.sending.set(false);
+        } while ((subscriber.evicted ? !subscriber.completed : !subscriber.buffer.isEmpty())
+            && subscriber.sending.compareAndSet(false, true));
+    }
+
+    private SseEmitter.SseEventBuilder toSse(Event event) {
+        if (event == HEARTBEAT) {
+            return SseEmitter.event().comment("heartbeat");
+        }
+        SseEmitter.SseEventBuilder builder = SseEmitter.event().id(Long.toString(event.id()));
+        if (event.name() == null) {
+            // an event without data is not dispatched, but the client takes over its id
+            return builder.reconnectTime(reconnectMillis).comment("subscribed");
+        }
+        return builder.name(event.name()).data(event.data());
+    }
+
+    private static void afterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+}
@@ -0,0 +1,28 @@
+package de.unistuttgart.iste.ese.api.changes;
+
+import java.util.Locale;
+
+/**
+ * The kinds of events of the ChangeFeed.
+ * Created and updated events carry the new representation of the resource, deleted events its id.
+ * RESYNC tells the client to load the data again: it is sent after bulk changes that are not
+ * published per resource, and to subscribers whose missed events are no longer buffered.
+ */
+public enum ChangeType {
+    TODO_CREATED,
+    TODO_UPDATED,
+    TODO_DELETED,
+    ASSIGNEE_CREATED,
+    ASSIGNEE_UPDATED,
+    ASSIGNEE_DELETED,
+    RESYNC;
+
+    /**
+     * Returns the name of the event in the stream, e.g. todo-created.
+     *
+     * @return The event name.
+     */
+    public String eventName() {
+        return name().toLowerCase(Locale.ROOT).replace('_', '-');
+    }
+}
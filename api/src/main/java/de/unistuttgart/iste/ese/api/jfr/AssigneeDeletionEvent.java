@@ -0,0 +1,25 @@
+package de.unistuttgart.iste.ese.api.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Recorded for every assignee deletion, including the removal from its todos.
+ */
+@Name("de.unistuttgart.iste.ese.api.AssigneeDeletion")
+@Label("Assignee Deletion")
+@Category({"Todo API", "Assignees"})
+@Description("Deletion of an assignee and its removal from all todos")
+@StackTrace(false)
+public class AssigneeDeletionEvent extends Event {
+
+    @Label("Assignee Id")
+    public long assigneeId;
+
+    @Label("Affected Todos")
+    public long affectedTodos;
+}
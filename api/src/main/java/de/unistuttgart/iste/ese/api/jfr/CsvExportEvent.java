@@ -0,0 +1,22 @@
+package de.unistuttgart.iste.ese.api.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Recorded for every CSV export.
+ */
+@Name("de.unistuttgart.iste.ese.api.CsvExport")
+@Label("CSV Export")
+@Category({"Todo API", "Export"})
+@Description("Export of all todos as CSV")
+@StackTrace(false)
+public class CsvExportEvent extends Event {
+
+    @Label("Row Count")
+    public long rowCount;
+}
@@ -0,0 +1,78 @@
+package de.unistuttgart.iste.ese.api.jfr;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.actuate.endpoint.annotation.DeleteOperation;
+import org.springframework.boot.actuate.endpoint.annotation.OptionalParameter;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Selector;
+import org.springframework.boot.actuate.endpoint.annotation.WriteOperation;
+import org.springframework.boot.actuate.endpoint.web.WebEndpointResponse;
+import org.springframework.boot.actuate.endpoint.web.annotation.WebEndpoint;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.Resource;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.Map;
+
+/**
+ * Actuator endpoint for flight recordings, available at /actuator/jfr to admins only.
+ * POST starts an on-demand recording, DELETE stops it, GET shows the state of the recordings
+ * and GET /actuator/jfr/{recording} downloads the on-demand or continuous recording as a .jfr file.
+ */
+@Component
+@WebEndpoint(id = "jfr")
+public class FlightRecordingEndpoint {
+
+    private static final int DEFAULT_DURATION_SECONDS = 60;
+
+    @Autowired
+    private FlightRecordings flightRecordings;
+
+    /**
+     * Retrieves the state of the recordings.
+     *
+     * @return The state of the on-demand and the continuous recording.
+     */
+    @ReadOperation
+    public Map<String, Object> status() {
+        return flightRecordings.getStatus();
+    }
+
+    /**
+     * Starts an on-demand recording.
+     *
+     * @param durationSeconds Optional duration in seconds, 60 by default.
+     * @param settings Optional JFR settings, "profile" by default.
+     * @return The state of the recordings.
+     */
+    @WriteOperation
+    public Map<String, Object> start(@OptionalParameter Integer durationSeconds, @OptionalParameter String settings) {
+        return flightRecordings.startRecording(
+            Duration.ofSeconds(durationSeconds != null ? durationSeconds : DEFAULT_DURATION_SECONDS),
+            settings != null ? settings : "profile");
+    }
+
+    /**
+     * Stops the on-demand recording.
+     *
+     * @return The state of the recordings.
+     */
+    @DeleteOperation
+    public Map<String, Object> stop() {
+        return flightRecordings.stopRecording();
+    }
+
+    /**
+     * Downloads the data of a recording.
+     *
+     * @param recording "on-demand" or "continuous".
+     * @return The recording as a .jfr file.
+     * @throws IOException If the recording cannot be dumped.
+     */
+    @ReadOperation(produces = "application/octet-stream")
+    public WebEndpointResponse<Resource> dump(@Selector String recording) throws IOException {
+        return new WebEndpointResponse<>(new FileSystemResource(flightRecordings.dump(recording)));
+    }
+}
@@ -0,0 +1,193 @@
+package de.unistuttgart.iste.ese.api.jfr;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jdk.jfr.Configuration;
+import jdk.jfr.Recording;
+import jdk.jfr.RecordingState;
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.text.ParseException;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Manages the flight recordings of the application: an optional continuous recording that
+ * keeps the last todos.jfr.continuous.max-age of data in a ring buffer on disk, and at most one
+ * on-demand recording that is bounded in duration and size. Both can be dumped to a file.
+ */
+@Component
+public class FlightRecordings {
+
+    private static final Log LOG = LogFactory.getLog(FlightRecordings.class);
+
+    /**
+     * The name of the on-demand recording.
+     */
+    public static final String ON_DEMAND = "on-demand";
+
+    /**
+     * The name of the continuous recording.
+     */
+    public static final String CONTINUOUS = "continuous";
+
+    private static final long MEGABYTE = 1024 * 1024;
+
+    @Value("${todos.jfr.max-duration:10m}")
+    private Duration maxDuration;
+
+    @Value("${todos.jfr.max-size-mb:100}")
+    private long maxSizeMb;
+
+    @Value("${todos.jfr.continuous.enabled:false}")
+    private boolean continuousEnabled;
+
+    @Value("${todos.jfr.continuous.max-age:6h}")
+    private Duration continuousMaxAge;
+
+    @Value("${todos.jfr.continuous.max-size-mb:250}")
+    private long continuousMaxSizeMb;
+
+    @Value("${todos.jfr.dump-directory:${java.io.tmpdir}/todo-api-jfr}")
+    private Path dumpDirectory;
+
+    private Recording continuous;
+    private Recording onDemand;
+
+    /**
+     * Starts the continuous recording if it is enabled.
+     */
+    @PostConstruct
+    void start() throws IOException, ParseException {
+        if (!continuousEnabled) {
+            return;
+        }
+        // the "default" settings are designed for always-on use with about 1% overhead
+        continuous = new Recording(Configuration.getConfiguration("default"));
+        continuous.setName("todo-api-" + CONTINUOUS);
+        continuous.setToDisk(true);
+        continuous.setMaxAge(continuousMaxAge);
+        continuous.setMaxSize(continuousMaxSizeMb * MEGABYTE);
+        continuous.start();
+        LOG.info("Started continuous flight recording, keeping " + continuousMaxAge + " or " + continuousMaxSizeMb + " MB");
+    }
+
+    /**
+     * Closes all recordings.
+     */
+    @PreDestroy
+    synchronized void stop() {
+        if (continuous != null) {
+            continuous.close();
+        }
+        if (onDemand != null) {
+            onDemand.close();
+        }
+    }
+
+    /**
+     * Starts a new on-demand recording, replacing a stopped one.
+     *
+     * @param duration The duration after which the recording stops, capped at todos.jfr.max-duration.
+     * @param settings The name of the JFR settings to use, "default" or "profile".
+     * @return The status of the recordings.
+     * @throws ResponseStatusException If an on-demand recording is already running or the settings do not exist.
+     */
+    public synchronized Map<String, Object> startRecording(Duration duration, String settings) {
+        if (onDemand != null && onDemand.getState() == RecordingState.RUNNING) {
+            throw new ResponseStatusException(HttpStatus.CONFLICT, "An on-demand recording is already running");
+        }
+        Configuration configuration;
+        try {
+            configuration = Configuration.getConfiguration(settings);
+        } catch (IOException | ParseException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Unknown recording settings " + settings);
+        }
+        if (onDemand != null) {
+            onDemand.close();
+        }
+        onDemand = new Recording(configuration);
+        onDemand.setName("todo-api-" + ON_DEMAND);
+        onDemand.setToDisk(true);
+        onDemand.setDuration(duration.compareTo(maxDuration) > 0 ? maxDuration : duration);
+        onDemand.setMaxSize(maxSizeMb * MEGABYTE);
+        onDemand.start();
+        LOG.info("Started on-demand flight recording for " + onDemand.getDuration() + " with settings " + settings);
+        return getStatus();
+    }
+
+    /**
+     * Stops the on-demand recording. Its data is kept until the next recording is started.
+     *
+     * @return The status of the recordings.
+     * @throws ResponseStatusException If no on-demand recording has been started.
+     */
+    public synchronized Map<String, Object> stopRecording() {
+        if (onDemand == null) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, "No on-demand recording has been started");
+        }
+        if (onDemand.getState() == RecordingState.RUNNING) {
+            onDemand.stop();
+        }
+        return getStatus();
+    }
+
+    /**
+     * Writes the data of a recording to a file in the dump directory, replacing an earlier dump.
+     *
+     * @param name The recording to dump, "on-demand" or "continuous".
+     * @return The file with the recording data.
+     * @throws ResponseStatusException If the recording does not exist or has no data.
+     * @throws IOException If the file cannot be written.
+     */
+    public synchronized Path dump(String name) throws IOException {
+        Recording recording = switch (name) {
+            case ON_DEMAND -> onDemand;
+            case CONTINUOUS -> continuous;
+            default -> null;
+        };
+        if (recording == null || recording.getState() == RecordingState.NEW || recording.getState() == RecordingState.CLOSED) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, "No " + name + " recording available");
+        }
+        Files.createDirectories(dumpDirectory);
+        Path file = dumpDirectory.resolve(name + ".jfr");
+        recording.dump(file);
+        return file;
+    }
+
+    /**
+     * Returns the state of the recordings.
+     *
+     * @return The name, state, start time, duration and size of each recording.
+     */
+    public synchronized Map<String, Object> getStatus() {
+        Map<String, Object> status = new LinkedHashMap<>();
+        status.put(ON_DEMAND, describe(onDemand));
+        status.put(CONTINUOUS, describe(continuous));
+        return status;
+    }
+
+    private static Map<String, Object> describe(Recording recording) {
+        Map<String, Object> details = new LinkedHashMap<>();
+        if (recording == null) {
+            details.put("state", "NONE");
+            return details;
+        }
+        details.put("state", recording.getState().name());
+        details.put("startTime", recording.getStartTime() != null ? recording.getStartTime().toString() : null);
+        details.put("duration", recording.getDuration() != null ? recording.getDuration().toString() : null);
+        details.put("maxAge", recording.getMaxAge() != null ? recording.getMaxAge().toString() : null);
+        details.put("maxSize", recording.getMaxSize());
+        details.put("size", recording.getSize());
+        return details;
+    }
+}
@@ -0,0 +1,31 @@
+package de.unistuttgart.iste.ese.api.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Recorded for every title classification.
+ */
+@Name("de.unistuttgart.iste.ese.api.ModelEvaluation")
+@Label("Model Evaluation")
+@Category({"Todo API", "Classification"})
+@Description("Classification of a todo title")
+@StackTrace(false)
+public class ModelEvaluationEvent extends Event {
+
+    @Label("Title Length")
+    public int titleLength;
+
+    @Label("Predicted Class")
+    public String predictedClass;
+
+    @Label("Model Version")
+    public String modelVersion;
+
+    @Label("Cache Hit")
+    public boolean cacheHit;
+}
@@ -0,0 +1,35 @@
+package de.unistuttgart.iste.ese.api.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Recorded for every HTTP request with the number of SQL statements it executed and rows it loaded.
+ */
+@Name("de.unistuttgart.iste.ese.api.RequestSql")
+@Label("Request SQL Statements")
+@Category({"Todo API", "SQL"})
+@Description("SQL statements executed while handling an HTTP request")
+@StackTrace(false)
+public class RequestSqlEvent extends Event {
+
+    @Label("Method")
+    public String method;
+
+    @Label("URI")
+    public String uri;
+
+    @Label("Status")
+    public int status;
+
+    @Label("Statement Count")
+    public long statementCount;
+
+    @Label("Row Count")
+    @Description("Rows loaded as entities")
+    public long rowCount;
+}
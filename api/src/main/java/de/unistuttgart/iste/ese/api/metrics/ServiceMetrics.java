@@ -0,0 +1,83 @@
+package de.unistuttgart.iste.ese.api.metrics;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Records timers and counters for the internals of the services.
+ * Meters are tagged by the service operation they belong to, e.g. operation=create.
+ * Percentile histograms and SLOs are configured with the management.metrics.distribution.* properties.
+ */
+@Component
+public class ServiceMetrics {
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    /**
+     * Times an action and records its duration in the timer with the given name and tags.
+     *
+     * @param name The name of the timer.
+     * @param action The action to time.
+     * @param tags Alternating tag keys and values.
+     * @return The result of the action.
+     */
+    public <T> T time(String name, Supplier<T> action, String... tags) {
+        long start = System.nanoTime();
+        try {
+            return action.get();
+        } finally {
+            meterRegistry.timer(name, tags).record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    /**
+     * Times an action without result and records its duration in the timer with the given name and tags.
+     *
+     * @param name The name of the timer.
+     * @param action The action to time.
+     * @param tags Alternating tag keys and values.
+     */
+    public void time(String name, Runnable action, String... tags) {
+        time(name, () -> {
+            action.run();
+            return null;
+        }, tags);
+    }
+
+    /**
+     * Starts timing an action whose tags are only known after it finished.
+     *
+     * @return The started sample, stopped with stop.
+     */
+    public Timer.Sample start() {
+        return Timer.start(meterRegistry);
+    }
+
+    /**
+     * Stops a sample and records it in the timer with the given name and tags.
+     *
+     * @param sample The sample started with start.
+     * @param name The name of the timer.
+     * @param tags Alternating tag keys and values.
+     */
+    public void stop(Timer.Sample sample, String name, String... tags) {
+        sample.stop(meterRegistry.timer(name, tags));
+    }
+
+    /**
+     * Increments the counter with the given name and tags.
+     *
+     * @param name The name of the counter.
+     * @param amount The amount to add.
+     * @param tags Alternating tag keys and values.
+     */
+    public void count(String name, double amount, String... tags) {
+        meterRegistry.counter(name, tags).increment(amount);
+    }
+}
@@ -0,0 +1,40 @@
+package de.unistuttgart.iste.ese.api.sql;
+
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.stat.internal.StatisticsImpl;
+import org.hibernate.stat.spi.StatisticsFactory;
+import org.hibernate.stat.spi.StatisticsImplementor;
+
+/**
+ * Hibernate statistics that additionally count the entities loaded on the current thread,
+ * one per row read from a result set, in the SqlStatementCounter.
+ * Registered with hibernate.stats.factory and active while hibernate.generate_statistics is set.
+ */
+public class RowCountingStatistics extends StatisticsImpl {
+
+    /**
+     * Creates the statistics of a session factory.
+     *
+     * @param sessionFactory The session factory.
+     */
+    public RowCountingStatistics(SessionFactoryImplementor sessionFactory) {
+        super(sessionFactory);
+    }
+
+    @Override
+    public void loadEntity(String entityName) {
+        super.loadEntity(entityName);
+        SqlStatementCounter.addRows(1);
+    }
+
+    /**
+     * Builds RowCountingStatistics for the session factory.
+     */
+    public static class Factory implements StatisticsFactory {
+
+        @Override
+        public StatisticsImplementor buildStatistics(SessionFactoryImplementor sessionFactory) {
+            return new RowCountingStatistics(sessionFactory);
+        }
+    }
+}
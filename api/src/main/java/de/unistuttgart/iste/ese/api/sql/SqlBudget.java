@@ -0,0 +1,30 @@
+package de.unistuttgart.iste.ese.api.sql;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Declares how many SQL statements and loaded rows a controller method may need per request.
+ * Checked by the SqlBudgetGuard: exceeding the budget fails the request in tests and logs
+ * a warning in production, so N+1 regressions show up before they reach production.
+ * Only statements prepared by Hibernate are counted; writes include the statement that draws their
+ * change number from the ChangeSequence, which goes through the EntityManager for that reason.
+ */
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+@Documented
+public @interface SqlBudget {
+
+    /**
+     * The maximum number of SQL statements.
+     */
+    int statements();
+
+    /**
+     * The maximum number of rows loaded as entities, negative for no limit.
+     */
+    long rows() default -1;
+}
@@ -0,0 +1,142 @@
+package de.unistuttgart.iste.ese.api.sql;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.Nonnull;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.MethodParameter;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.server.ServerHttpRequest;
+import org.springframework.http.server.ServerHttpResponse;
+import org.springframework.http.server.ServletServerHttpRequest;
+import org.springframework.web.bind.annotation.ControllerAdvice;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.HandlerInterceptor;
+import org.springframework.web.servlet.ModelAndView;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyAdvice;
+
+import java.lang.reflect.Method;
+import java.util.function.BiConsumer;
+
+/**
+ * Enforces the SqlBudget of controller methods.
+ * The statements and rows counted by the SqlStatementCounter are checked right before the response
+ * body is written (or after the handler for responses without body), reported in the X-Sql-Statements
+ * and X-Sql-Rows headers if todos.sql.expose-headers is set, and recorded per handler in the
+ * sql.request.statements and sql.request.rows histograms. With todos.sql.budget.mode=fail an exceeded
+ * budget fails the request, with the default mode warn it is only logged.
+ */
+@ControllerAdvice
+public class SqlBudgetGuard implements ResponseBodyAdvice<Object>, HandlerInterceptor, WebMvcConfigurer {
+
+    private static final Log LOG = LogFactory.getLog(SqlBudgetGuard.class);
+
+    public static final String STATEMENTS_HEADER = "X-Sql-Statements";
+
+    public static final String ROWS_HEADER = "X-Sql-Rows";
+
+    private static final String CHECKED_ATTRIBUTE = SqlBudgetGuard.class.getName() + ".CHECKED";
+
+    /**
+     * What happens if a request exceeds its budget.
+     */
+    public enum Mode { WARN, FAIL }
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${todos.sql.budget.mode:warn}")
+    private Mode mode;
+
+    @Value("${todos.sql.expose-headers:false}")
+    private boolean exposeHeaders;
+
+    @Override
+    public void addInterceptors(@Nonnull InterceptorRegistry registry) {
+        registry.addInterceptor(this);
+    }
+
+    @Override
+    public boolean supports(@Nonnull MethodParameter returnType,
+                            @Nonnull Class<? extends HttpMessageConverter<?>> converterType) {
+        return returnType.getMethod() != null;
+    }
+
+    @Override
+    public Object beforeBodyWrite(Object body, @Nonnull MethodParameter returnType, @Nonnull MediaType selectedContentType,
+                                  @Nonnull Class<? extends HttpMessageConverter<?>> selectedConverterType,
+                                  @Nonnull ServerHttpRequest request, @Nonnull ServerHttpResponse response) {
+        if (request instanceof ServletServerHttpRequest servletRequest) {
+            check(returnType.getMethod(), servletRequest.getServletRequest(), response.getHeaders()::set);
+        }
+        return body;
+    }
+
+    @Override
+    public void postHandle(@Nonnull HttpServletRequest request, @Nonnull HttpServletResponse response,
+                           @Nonnull Object handler, ModelAndView modelAndView) {
+        if (handler instanceof HandlerMethod handlerMethod) {
+            check(handlerMethod.getMethod(), request, response::setHeader);
+        }
+    }
+
+    @Override
+    public void afterCompletion(@Nonnull HttpServletRequest request, @Nonnull HttpServletResponse response,
+                                @Nonnull Object handler, Exception ex) {
+        if (handler instanceof HandlerMethod handlerMethod) {
+            String name = handlerMethod.getBeanType().getSimpleName() + "." + handlerMethod.getMethod().getName();
+            DistributionSummary.builder("sql.request.statements")
+                .description("SQL statements per request")
+                .tag("handler", name)
+                .publishPercentileHistogram()
+                .register(meterRegistry)
+                .record(SqlStatementCounter.getCount());
+            DistributionSummary.builder("sql.request.rows")
+                .description("Rows loaded as entities per request")
+                .tag("handler", name)
+                .publishPercentileHistogram()
+                .register(meterRegistry)
+                .record(SqlStatementCounter.getRowCount());
+        }
+    }
+
+    /**
+     * Checks the budget of a handler method once per request and adds the headers.
+     *
+     * @throws IllegalStateException If the budget is exceeded in fail mode.
+     */
+    private void check(Method method, HttpServletRequest request, BiConsumer<String, String> headers) {
+        if (request.getAttribute(CHECKED_ATTRIBUTE) != null) {
+            return;
+        }
+        request.setAttribute(CHECKED_ATTRIBUTE, Boolean.TRUE);
+        long statements = SqlStatementCounter.getCount();
+        long rows = SqlStatementCounter.getRowCount();
+        if (exposeHeaders) {
+            headers.accept(STATEMENTS_HEADER, Long.toString(statements));
+            headers.accept(ROWS_HEADER, Long.toString(rows));
+        }
+
+        SqlBudget budget = method.getAnnotation(SqlBudget.class);
+        if (budget == null) {
+            return;
+        }
+        if (statements > budget.statements() || (budget.rows() >= 0 && rows > budget.rows())) {
+            String message = method.getDeclaringClass().getSimpleName() + "." + method.getName()
+                + " exceeded its SQL budget: " + statements + " statements (budget " + budget.statements() + "), "
+                + rows + " rows" + (budget.rows() >= 0 ? " (budget " + budget.rows() + ")" : "");
+            if (mode == Mode.FAIL) {
+                throw new IllegalStateException(message);
+            }
+            LOG.warn(message);
+        }
+    }
+}
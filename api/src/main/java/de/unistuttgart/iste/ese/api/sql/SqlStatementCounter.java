@@ -0,0 +1,68 @@
+package de.unistuttgart.iste.ese.api.sql;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+
+/**
+ * Counts the SQL statements Hibernate prepares and the rows it loads on the current thread.
+ * Registered with hibernate.session_factory.statement_inspector; Hibernate instantiates it
+ * itself, so the counts are kept in a static thread-local and reset per request by the
+ * SqlStatementFilter. Rows are reported by the RowCountingStatistics. Statements are passed
+ * through unchanged.
+ */
+public class SqlStatementCounter implements StatementInspector {
+
+    private static final int STATEMENTS = 0;
+
+    private static final int ROWS = 1;
+
+    private static final ThreadLocal<long[]> COUNTS = ThreadLocal.withInitial(() -> new long[2]);
+
+    @Override
+    public String inspect(String sql) {
+        COUNTS.get()[STATEMENTS]++;
+        return sql;
+    }
+
+    /**
+     * Adds loaded rows to the count of the current thread.
+     *
+     * @param rows The number of rows.
+     */
+    public static void addRows(long rows) {
+        COUNTS.get()[ROWS] += rows;
+    }
+
+    /**
+     * Resets the counts of the current thread.
+     */
+    public static void reset() {
+        long[] counts = COUNTS.get();
+        counts[STATEMENTS] = 0;
+        counts[ROWS] = 0;
+    }
+
+    /**
+     * Returns the number of statements prepared on the current thread since the last reset.
+     *
+     * @return The statement count.
+     */
+    public static long getCount() {
+        return COUNTS.get()[STATEMENTS];
+    }
+
+    /**
+     * Returns the number of rows loaded as entities on the current thread since the last reset.
+     *
+     * @return The row count.
+     */
+    public static long getRowCount() {
+        return COUNTS.get()[ROWS];
+    }
+
+    /**
+     * Removes the counts of the current thread, e.g. when a request is finished.
+     */
+    public static void clear() {
+        COUNTS.remove();
+    }
+}
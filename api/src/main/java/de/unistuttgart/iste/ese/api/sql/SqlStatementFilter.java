@@ -0,0 +1,41 @@
+package de.unistuttgart.iste.ese.api.sql;
+
+import de.unistuttgart.iste.ese.api.jfr.RequestSqlEvent;
+import jakarta.annotation.Nonnull;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+
+/**
+ * Counts the SQL statements and rows of each request and records them
+ * as a RequestSqlEvent in the flight recorder.
+ */
+@Component
+public class SqlStatementFilter extends OncePerRequestFilter {
+
+    @Override
+    protected void doFilterInternal(@Nonnull HttpServletRequest request, @Nonnull HttpServletResponse response,
+                                    @Nonnull FilterChain filterChain) throws ServletException, IOException {
+        RequestSqlEvent event = new RequestSqlEvent();
+        event.begin();
+        SqlStatementCounter.reset();
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            if (event.shouldCommit()) {
+                event.method = request.getMethod();
+                event.uri = request.getRequestURI();
+                event.status = response.getStatus();
+                event.statementCount = SqlStatementCounter.getCount();
+                event.rowCount = SqlStatementCounter.getRowCount();
+                event.commit();
+            }
+            SqlStatementCounter.clear();
+        }
+    }
+}
@@ -0,0 +1,12 @@
+package de.unistuttgart.iste.ese.api.sync;
+
+import java.util.List;
+
+/**
+ * A page of the records changed in a range of change numbers.
+ *
+ * @param records The records of the page.
+ * @param next The position of the last record if the range has more records, null otherwise.
+ */
+public record ChangePage<T>(List<T> records, ChangePosition next) {
+}
@@ -0,0 +1,20 @@
+package de.unistuttgart.iste.ese.api.sync;
+
+/**
+ * A position in the change order of Todos, Assignees or tombstones, which are ordered by change number and id.
+ *
+ * @param changeSeq The change number of the last record read.
+ * @param id The id of the last record read.
+ */
+public record ChangePosition(long changeSeq, long id) {
+
+    /**
+     * Returns the position before the first record changed after a change number.
+     *
+     * @param changeSeq The exclusive lower bound of the change number.
+     * @return The position.
+     */
+    public static ChangePosition after(long changeSeq) {
+        return new ChangePosition(changeSeq, Long.MAX_VALUE);
+    }
+}
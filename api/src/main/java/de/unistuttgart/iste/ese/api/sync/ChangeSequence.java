@@ -0,0 +1,152 @@
+package de.unistuttgart.iste.ese.api.sync;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import jakarta.persistence.PersistenceContext;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.concurrent.ConcurrentSkipListSet;
+
+/**
+ * Hands out the change numbers stored in the change_seq columns of Todos, Assignees and tombstones,
+ * which the delta sync uses to find the changes since a client's last sync.
+ * <p>
+ * Each writing transaction draws one number from the sync_change_seq database sequence. Drawing a number
+ * takes no lock that is held until the commit, so writers do not wait for each other, but a transaction may
+ * commit after one that drew a higher number. The numbers of the transactions still in flight are therefore
+ * kept until they complete, and a sync only reads up to the number before the oldest of them (upperBound):
+ * every change up to that number is committed or rolled back. A long transaction holds the syncs back
+ * until it completes, it does not block writers.
+ * The statements go through the EntityManager, so the SqlBudgetGuard counts them. Like the ChangeFeed, the
+ * watermark covers the transactions of a single instance of the API.
+ */
+@Component
+public class ChangeSequence {
+
+    private static final String SEQUENCE = "sync_change_seq";
+
+    private static final long ROW_ID = 1;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    // the schema update creates the change_seq columns and the sync_state table while the EntityManagerFactory is built
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private final ConcurrentSkipListSet<Long> inFlight = new ConcurrentSkipListSet<>();
+
+    // draws and registrations happen together, so upperBound never misses a number that is drawn but not yet registered
+    private final Object draws = new Object();
+
+    /**
+     * Creates the sequence above the change numbers already stored and inserts the row of the
+     * pruning watermark unless they exist, before the web server accepts requests.
+     */
+    @PostConstruct
+    void createSequence() {
+        long start = 1;
+        for (String table : new String[]{"todos", "assignees", "tombstones"}) {
+            Long max = jdbcTemplate.queryForObject("select max(change_seq) from " + table, Long.class);
+            if (max != null && max >= start) {
+                start = max + 1;
+            }
+        }
+        jdbcTemplate.execute("create sequence if not exists " + SEQUENCE + " start with " + start);
+
+        Integer rows = jdbcTemplate.queryForObject("select count(*) from sync_state where id = ?", Integer.class, ROW_ID);
+        if (rows != null && rows > 0) {
+            return;
+        }
+        try {
+            jdbcTemplate.update("insert into sync_state (id, pruned_seq) values (?, 0)", ROW_ID);
+        } catch (DuplicateKeyException e) {
+            // another instance inserted it at the same time
+        }
+    }
+
+    /**
+     * Returns the change number of the current transaction, drawing it on the first call.
+     * The number counts as in flight until the transaction completes.
+     *
+     * @return The change number to store with every record the transaction writes.
+     * @throws IllegalStateException If no transaction is active.
+     */
+    public long next() {
+        Long current = (Long) TransactionSynchronizationManager.getResource(this);
+        if (current != null) {
+            return current;
+        }
+        if (!TransactionSynchronizationManager.isActualTransactionActive()
+            || !TransactionSynchronizationManager.isSynchronizationActive()) {
+            throw new IllegalStateException("Change numbers must be drawn in the transaction of the change");
+        }
+        long changeSeq;
+        synchronized (draws) {
+            changeSeq = draw();
+            inFlight.add(changeSeq);
+        }
+        TransactionSynchronizationManager.bindResource(this, changeSeq);
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                TransactionSynchronizationManager.unbindResource(ChangeSequence.this);
+                inFlight.remove(changeSeq);
+            }
+        });
+        return changeSeq;
+    }
+
+    /**
+     * Returns the highest change number up to which all transactions are complete.
+     * Call it before the transaction that reads the changes starts, so the reads see all of them.
+     *
+     * @return The inclusive upper bound of the change numbers a sync may read.
+     */
+    public long upperBound() {
+        synchronized (draws) {
+            long drawn = draw();
+            Long oldest = inFlight.isEmpty() ? null : inFlight.first();
+            return (oldest != null ? Math.min(drawn, oldest) : drawn) - 1;
+        }
+    }
+
+    /**
+     * Reads the change number up to which tombstones have been pruned.
+     *
+     * @return The pruning watermark.
+     */
+    public long pruned() {
+        return ((Number) entityManager.createNativeQuery("select pruned_seq from sync_state where id = :id")
+            .setParameter("id", ROW_ID)
+            .setHint(HibernateHints.HINT_NATIVE_SPACES, "sync_state")
+            .getSingleResult()).longValue();
+    }
+
+    /**
+     * Raises the pruning watermark before the tombstones up to a change number are deleted,
+     * so syncs from before that number are reset instead of missing the deletions.
+     *
+     * @param changeSeq The change number up to which tombstones are pruned.
+     */
+    public void prunedThrough(long changeSeq) {
+        jdbcTemplate.update("update sync_state set pruned_seq = greatest(pruned_seq, ?) where id = ?", changeSeq, ROW_ID);
+    }
+
+    private long draw() {
+        // the sequence is not part of any table, so pending changes of the session are not flushed for it
+        return ((Number) entityManager.createNativeQuery("select next value for " + SEQUENCE)
+            .setHint(HibernateHints.HINT_NATIVE_SPACES, SEQUENCE)
+            .getSingleResult()).longValue();
+    }
+}
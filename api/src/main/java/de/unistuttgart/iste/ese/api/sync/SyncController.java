@@ -0,0 +1,39 @@
+package de.unistuttgart.iste.ese.api.sync;
+
+import de.unistuttgart.iste.ese.api.ApiVersion1;
+import de.unistuttgart.iste.ese.api.sql.SqlBudget;
+import de.unistuttgart.iste.ese.api.sync.dtos.SyncDTO;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.CacheControl;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.server.ResponseStatusException;
+
+/**
+ * Lets clients catch up with the changes of Todos and Assignees since their last sync.
+ * Delegates to the SyncService.
+ */
+@RestController
+@ApiVersion1
+public class SyncController {
+
+    @Autowired
+    private SyncService syncService;
+
+    /**
+     * Returns a page of the Todos and Assignees changed and the ids of those deleted since the sync that
+     * returned the token, together with a new token. While more is set, the client calls again with the
+     * new token to get the next page; once it is not set, the token is kept for the next sync.
+     * Without a token, or with an expired one, all Todos and Assignees are returned and reset is set on
+     * the first page, so the client replaces its data with the records of all pages instead of merging.
+     *
+     * @param since The token of the previous sync or page, optional.
+     * @return The changes and the token for the next page or sync.
+     * @throws ResponseStatusException If the token is invalid.
+     */
+    @GetMapping("/sync")
+    @SqlBudget(statements = 6)
+    public ResponseEntity<SyncDTO> sync(@RequestParam(required = false) String since) {
+        return ResponseEntity.ok().cacheControl(CacheControl.noStore()).body(syncService.sync(since));
+    }
+}
@@ -0,0 +1,235 @@
+package de.unistuttgart.iste.ese.api.sync;
+
+import de.unistuttgart.iste.ese.api.assignees.Assignee;
+import de.unistuttgart.iste.ese.api.assignees.AssigneeService;
+import de.unistuttgart.iste.ese.api.metrics.ServiceMetrics;
+import de.unistuttgart.iste.ese.api.sync.dtos.SyncDTO;
+import de.unistuttgart.iste.ese.api.todos.TodoService;
+import de.unistuttgart.iste.ese.api.todos.dtos.GetTodoDTO;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Computes the changes a client needs to catch up since its last sync.
+ * Every write stores the change number of its transaction with the records it writes (see ChangeSequence).
+ * A sync token encodes the last change number the client has seen; the next sync returns the Todos and
+ * Assignees changed and the tombstones written after it, up to the number below which all transactions are
+ * complete, each with a range scan on an indexed (change number, id) column pair. So its cost grows with
+ * the number of changes, not with the size of the tables, and no change committing late is missed.
+ * <p>
+ * The changes are returned in pages of at most todos.sync.page-size records per kind. The first page fixes
+ * the last change number of the sync; while more is set, the returned token continues after the last record
+ * of each kind and the client calls again, until the token of a complete sync is returned. Clients apply the
+ * changed records as upserts by id and the deletions afterwards.
+ * Without a token, with one from before the pruned tombstones, or with one the database does not know,
+ * all records are returned with reset set on the first page.
+ */
+@Service
+public class SyncService {
+
+    private static final Log LOG = LogFactory.getLog(SyncService.class);
+
+    private static final String REPOSITORY_TIMER = "sync.repository";
+
+    private static final String COMPLETE = "s";
+
+    private static final String CONTINUATION = "c";
+
+    /**
+     * The range of a sync and the position reached in each kind of record.
+     */
+    private record Cursor(long upTo, ChangePosition todos, ChangePosition assignees, ChangePosition tombstones) {
+    }
+
+    @Autowired
+    private TodoService todoService;
+
+    @Autowired
+    private AssigneeService assigneeService;
+
+    @Autowired
+    private TombstoneRepository tombstoneRepository;
+
+    @Autowired
+    private ChangeSequence changeSequence;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private ServiceMetrics serviceMetrics;
+
+    @Value("${todos.sync.page-size:500}")
+    private int pageSize;
+
+    @Value("${todos.sync.tombstone-retention-days:30}")
+    private long retentionDays;
+
+    private final ScheduledExecutorService pruning =
+        Executors.newSingleThreadScheduledExecutor(Thread.ofPlatform().name("tombstone-pruning").daemon().factory());
+
+    private TransactionTemplate readTransaction;
+
+    /**
+     * Starts pruning the tombstones older than the retention period once per hour.
+     */
+    @PostConstruct
+    void start() {
+        // one snapshot for the watermark, the changed records and the deletions
+        readTransaction = new TransactionTemplate(transactionTemplate.getTransactionManager());
+        readTransaction.setReadOnly(true);
+        readTransaction.setIsolationLevel(TransactionDefinition.ISOLATION_REPEATABLE_READ);
+        pruning.scheduleWithFixedDelay(this::prune, 1, 60, TimeUnit.MINUTES);
+    }
+
+    /**
+     * Stops the pruning.
+     */
+    @PreDestroy
+    void stop() {
+        pruning.shutdownNow();
+    }
+
+    /**
+     * Returns a page of the changes since the sync that returned the given token, read in one transaction
+     * so the changed records and the deletions are consistent.
+     * The upper bound of the change numbers is taken before that transaction starts, so it sees all of them.
+     *
+     * @param token The token of the previous sync or page, or null for a full sync.
+     * @return The changed records, the ids of the deleted records, whether there are more pages and the token
+     *         of the next page or sync.
+     * @throws ResponseStatusException If the token is invalid.
+     */
+    public SyncDTO sync(String token) {
+        long current = changeSequence.upperBound();
+        Cursor parsed = parseToken(token, current);
+        return readTransaction.execute(status -> read(parsed, current));
+    }
+
+    private SyncDTO read(Cursor parsed, long current) {
+        long pruned = changeSequence.pruned();
+        Cursor cursor = parsed;
+        boolean reset = cursor == null || cursor.tombstones().changeSeq() < pruned || cursor.upTo() > current;
+        if (reset) {
+            // records written before the change numbers were introduced have change number 0
+            cursor = new Cursor(current, ChangePosition.after(-1), ChangePosition.after(-1), ChangePosition.after(current));
+        }
+        long upTo = cursor.upTo();
+
+        ChangePage<GetTodoDTO> todos = todoService.getTodosChangedAfter(cursor.todos(), upTo, pageSize);
+        ChangePage<Assignee> assignees = assigneeService.getAssigneesChangedAfter(cursor.assignees(), upTo, pageSize);
+        ChangePage<Tombstone> tombstones = getTombstonesAfter(cursor.tombstones(), upTo);
+        List<Long> deletedTodoIds = new ArrayList<>();
+        List<Long> deletedAssigneeIds = new ArrayList<>();
+        for (Tombstone tombstone : tombstones.records()) {
+            (Tombstone.TODO.equals(tombstone.getType()) ? deletedTodoIds : deletedAssigneeIds).add(tombstone.getEntityId());
+        }
+
+        boolean more = todos.next() != null || assignees.next() != null || tombstones.next() != null;
+        String next = more
+            ? encodeContinuation(new Cursor(upTo, nextOf(todos, upTo), nextOf(assignees, upTo), nextOf(tombstones, upTo)))
+            : COMPLETE + "." + Long.toString(upTo, Character.MAX_RADIX);
+        return new SyncDTO(todos.records(), assignees.records(), deletedTodoIds, deletedAssigneeIds, reset, more, next);
+    }
+
+    private ChangePage<Tombstone> getTombstonesAfter(ChangePosition after, long upTo) {
+        List<Tombstone> rows = serviceMetrics.time(REPOSITORY_TIMER,
+            () -> tombstoneRepository.findChangedAfter(after.changeSeq(), after.id(), upTo, Limit.of(pageSize + 1)),
+            "operation", "sync", "method", "findChangedAfter");
+        if (rows.size() <= pageSize) {
+            return new ChangePage<>(rows, null);
+        }
+        Tombstone last = rows.get(pageSize - 1);
+        return new ChangePage<>(rows.subList(0, pageSize), new ChangePosition(last.getChangeSeq(), last.getId()));
+    }
+
+    /**
+     * Returns the position to continue a kind of record from, the end of the range if it is exhausted.
+     */
+    private static ChangePosition nextOf(ChangePage<?> page, long upTo) {
+        return page.next() != null ? page.next() : ChangePosition.after(upTo);
+    }
+
+    private static String encodeContinuation(Cursor cursor) {
+        long[] values = {cursor.upTo(), cursor.todos().changeSeq(), cursor.todos().id(), cursor.assignees().changeSeq(),
+            cursor.assignees().id(), cursor.tombstones().changeSeq(), cursor.tombstones().id()};
+        StringBuilder token = new StringBuilder(CONTINUATION);
+        for (long value : values) {
+            token.append('.').append(Long.toString(value, Character.MAX_RADIX));
+        }
+        return token.toString();
+    }
+
+    /**
+     * Parses a token into the cursor of the next page.
+     * Tokens of a complete sync continue after its change number up to the current one.
+     *
+     * @return The cursor, or null if there is no token or it was issued before the change numbers were introduced.
+     */
+    private static Cursor parseToken(String token, long current) {
+        if (token == null || token.isEmpty() || token.indexOf('.') < 0) {
+            return null;
+        }
+        String[] parts = token.split("\\.", -1);
+        try {
+            if (COMPLETE.equals(parts[0]) && parts.length == 2) {
+                long since = Long.parseLong(parts[1], Character.MAX_RADIX);
+                ChangePosition after = ChangePosition.after(since);
+                // a token from the future is reset by the upper bound check
+                return new Cursor(Math.max(since, current), after, after, after);
+            }
+            if (CONTINUATION.equals(parts[0]) && parts.length == 8) {
+                long[] values = new long[7];
+                for (int i = 0; i < values.length; i++) {
+                    values[i] = Long.parseLong(parts[i + 1], Character.MAX_RADIX);
+                }
+                return new Cursor(values[0], new ChangePosition(values[1], values[2]),
+                    new ChangePosition(values[3], values[4]), new ChangePosition(values[5], values[6]));
+            }
+        } catch (NumberFormatException e) {
+            // reported below
+        }
+        throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Invalid sync token");
+    }
+
+    /**
+     * Deletes the tombstones older than the retention period. The pruning watermark is raised in the same
+     * transaction, so syncs that would miss the deleted tombstones are reset instead.
+     */
+    private void prune() {
+        try {
+            Date before = new Date(System.currentTimeMillis() - TimeUnit.DAYS.toMillis(retentionDays));
+            Integer pruned = transactionTemplate.execute(status -> {
+                Long through = tombstoneRepository.findMaxChangeSeqByDeletedAtBefore(before);
+                if (through == null) {
+                    return 0;
+                }
+                changeSequence.prunedThrough(through);
+                return tombstoneRepository.deleteByChangeSeqAtMost(through);
+            });
+            if (pruned != null && pruned > 0) {
+                LOG.info("Pruned " + pruned + " tombstones older than " + retentionDays + " days");
+            }
+        } catch (RuntimeException e) {
+            // an exception would cancel the schedule, try again in the next run
+            LOG.warn("Could not prune tombstones:", e);
+        }
+    }
+}
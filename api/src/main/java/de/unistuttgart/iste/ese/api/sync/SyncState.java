@@ -0,0 +1,31 @@
+package de.unistuttgart.iste.ese.api.sync;
+
+import jakarta.persistence.*;
+
+/**
+ * The single row of the "sync_state" table: the change number up to which tombstones have been pruned.
+ * It is read and written with plain SQL by the ChangeSequence and only mapped so the
+ * schema update creates the table.
+ */
+@Entity
+@Table(name = "sync_state")
+public class SyncState {
+
+    @Id
+    @Column(name = "id")
+    private Long id;
+
+    @Column(name = "pruned_seq", nullable = false)
+    private long prunedSeq;
+
+    public SyncState() {
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public long getPrunedSeq() {
+        return prunedSeq;
+    }
+}
@@ -0,0 +1,78 @@
+package de.unistuttgart.iste.ese.api.sync;
+
+import jakarta.persistence.*;
+import org.hibernate.annotations.ColumnDefault;
+
+import java.util.Date;
+
+/**
+ * Records the deletion of a Todo or an Assignee in the "tombstones" table, so a delta sync can
+ * report it to clients that still hold the deleted record. Tombstones are read in the order of
+ * their change number and pruned after the retention period of the SyncService.
+ */
+@Entity
+@Table(name = "tombstones", indexes = {
+    @Index(name = "idx_tombstones_deleted_at", columnList = "deleted_at"),
+    @Index(name = "idx_tombstones_change_seq_id", columnList = "change_seq, id")
+})
+public class Tombstone {
+
+    /**
+     * The type of deleted Todos.
+     */
+    public static final String TODO = "todo";
+
+    /**
+     * The type of deleted Assignees.
+     */
+    public static final String ASSIGNEE = "assignee";
+
+    // generated by the database, so tombstones can also be inserted with insert ... select
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @Column(name = "id")
+    private Long id;
+
+    @Column(name = "entity_type", nullable = false, length = 16)
+    private String type;
+
+    @Column(name = "entity_id", nullable = false)
+    private Long entityId;
+
+    @Column(name = "deleted_at", nullable = false)
+    private Date deletedAt;
+
+    @ColumnDefault("0")
+    @Column(name = "change_seq", nullable = false)
+    private long changeSeq;
+
+    public Tombstone(String type, Long entityId, Date deletedAt, long changeSeq) {
+        this.type = type;
+        this.entityId = entityId;
+        this.deletedAt = deletedAt;
+        this.changeSeq = changeSeq;
+    }
+
+    public Tombstone() {
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public String getType() {
+        return type;
+    }
+
+    public Long getEntityId() {
+        return entityId;
+    }
+
+    public Date getDeletedAt() {
+        return deletedAt;
+    }
+
+    public long getChangeSeq() {
+        return changeSeq;
+    }
+}
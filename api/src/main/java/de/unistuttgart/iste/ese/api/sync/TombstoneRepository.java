@@ -0,0 +1,48 @@
+package de.unistuttgart.iste.ese.api.sync;
+
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import java.util.Date;
+import java.util.List;
+
+@Repository
+public interface TombstoneRepository extends JpaRepository<Tombstone, Long> {
+
+    /**
+     * Loads a page of the tombstones written after a position in the change order
+     * with a range scan on the change number and id.
+     *
+     * @param changeSeq The change number of the position.
+     * @param id The id of the position.
+     * @param upTo The inclusive upper bound of the change number.
+     * @param limit The maximum number of tombstones.
+     * @return The tombstones ordered by change number and id.
+     */
+    @Query("select t from Tombstone t where (t.changeSeq > :changeSeq or (t.changeSeq = :changeSeq and t.id > :id)) "
+        + "and t.changeSeq <= :upTo order by t.changeSeq, t.id")
+    List<Tombstone> findChangedAfter(@Param("changeSeq") long changeSeq, @Param("id") long id, @Param("upTo") long upTo,
+                                     Limit limit);
+
+    /**
+     * Returns the highest change number of the tombstones written before the given time.
+     *
+     * @param before The exclusive upper bound of the deletion time.
+     * @return The change number, or null if there are no such tombstones.
+     */
+    @Query("select max(t.changeSeq) from Tombstone t where t.deletedAt < :before")
+    Long findMaxChangeSeqByDeletedAtBefore(@Param("before") Date before);
+
+    /**
+     * Deletes the tombstones up to the given change number in a single statement.
+     *
+     * @param through The inclusive upper bound of the change number.
+     * @return The number of deleted tombstones.
+     */
+    @Modifying
+    @Query("delete from Tombstone t where t.changeSeq <= :through")
+    int deleteByChangeSeqAtMost(@Param("through") long through);
+}
@@ -0,0 +1,17 @@
+package de.unistuttgart.iste.ese.api.sync.dtos;
+
+import de.unistuttgart.iste.ese.api.assignees.Assignee;
+import de.unistuttgart.iste.ese.api.todos.dtos.GetTodoDTO;
+
+import java.util.List;
+
+public record SyncDTO(
+    List<GetTodoDTO> todos,
+    List<Assignee> assignees,
+    List<Long> deletedTodoIds,
+    List<Long> deletedAssigneeIds,
+    boolean reset,
+    boolean more,
+    String token
+) {
+}
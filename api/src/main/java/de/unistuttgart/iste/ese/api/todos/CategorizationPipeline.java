@@ -0,0 +1,236 @@
+package de.unistuttgart.iste.ese.api.todos;
+
+import de.unistuttgart.iste.ese.api.cache.ChangeVersion;
+import de.unistuttgart.iste.ese.api.changes.ChangeFeed;
+import de.unistuttgart.iste.ese.api.changes.ChangeType;
+import de.unistuttgart.iste.ese.api.sync.ChangeSequence;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Classifies new Todos asynchronously.
+ * Todos are stored with a pending category and queued here; a small pool of workers takes them
+ * from a bounded queue in micro-batches, classifies their titles and writes the categories back
+ * with one JDBC batch per micro-batch in its own transaction. The categorized Todos are published to the change feed as updates.
+ * Disabled unless todos.categorization.async.enabled is set.
+ */
+@Component
+public class CategorizationPipeline {
+
+    private static final Log LOG = LogFactory.getLog(CategorizationPipeline.class);
+
+    /**
+     * The category of a Todo that is waiting for asynchronous classification.
+     */
+    public static final String PENDING_CATEGORY = "pending";
+
+    private static final long POLL_TIMEOUT_MILLIS = 200;
+
+    private static final String UPDATE_CATEGORY_SQL = "update todos set category = ?, version = version + 1, change_seq = ? where id = ? and category = ?";
+
+    private record PendingTodo(Long id, String title, long enqueuedNanos) {
+    }
+
+    @Autowired
+    private ModelRegistry modelRegistry;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private ChangeSequence changeSequence;
+
+    @Autowired
+    private TodoRepository todoRepository;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private ChangeVersion changeVersion;
+
+    @Autowired
+    private ChangeFeed changeFeed;
+
+    @Value("${todos.categorization.async.enabled:false}")
+    private boolean enabled;
+
+    @Value("${todos.categorization.async.queue-capacity:10000}")
+    private int queueCapacity;
+
+    @Value("${todos.categorization.async.batch-size:100}")
+    private int batchSize;
+
+    @Value("${todos.categorization.async.workers:2}")
+    private int workers;
+
+    @Value("${todos.categorization.async.shutdown-timeout-seconds:30}")
+    private long shutdownTimeoutSeconds;
+
+    private BlockingQueue<PendingTodo> queue;
+    private ExecutorService executor;
+    private Timer lagTimer;
+    private Counter rejectedCounter;
+    private volatile boolean accepting;
+
+    /**
+     * Starts the workers if asynchronous categorization is enabled.
+     */
+    @PostConstruct
+    void start() {
+        if (!enabled) {
+            return;
+        }
+        queue = new ArrayBlockingQueue<>(queueCapacity);
+        Gauge.builder("todos.categorization.queue.depth", queue, BlockingQueue::size)
+            .description("Todos waiting for asynchronous categorization")
+            .register(meterRegistry);
+        lagTimer = Timer.builder("todos.categorization.lag")
+            .description("Time from queuing a Todo until its category is written")
+            .register(meterRegistry);
+        rejectedCounter = Counter.builder("todos.categorization.rejected")
+            .description("Todos classified inline because the queue was full")
+            .register(meterRegistry);
+
+        executor = Executors.newFixedThreadPool(workers, Thread.ofPlatform().name("todo-categorization-", 0).factory());
+        accepting = true;
+        for (int i = 0; i < workers; i++) {
+            executor.execute(this::runWorker);
+        }
+    }
+
+    /**
+     * Stops accepting Todos and waits until the queued ones are categorized.
+     */
+    @PreDestroy
+    void stop() throws InterruptedException {
+        if (executor == null) {
+            return;
+        }
+        accepting = false;
+        executor.shutdown();
+        if (!executor.awaitTermination(shutdownTimeoutSeconds, TimeUnit.SECONDS)) {
+            executor.shutdownNow();
+            LOG.warn(queue.size() + " todos were left with a pending category on shutdown");
+        }
+    }
+
+    /**
+     * Checks whether asynchronous categorization is enabled.
+     *
+     * @return true if new Todos should be submitted instead of classified inline.
+     */
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Queues a Todo for categorization without blocking.
+     *
+     * @param id The ID of the Todo, stored with the pending category.
+     * @param title The title to classify.
+     * @return true if the Todo was queued, false if the queue is full or the pipeline is stopped.
+     */
+    public boolean submit(Long id, String title) {
+        if (!accepting || !queue.offer(new PendingTodo(id, title, System.nanoTime()))) {
+            if (rejectedCounter != null) {
+                rejectedCounter.increment();
+            }
+            return false;
+        }
+        return true;
+    }
+
+    private void runWorker() {
+        List<PendingTodo> batch = new ArrayList<>(batchSize);
+        while (true) {
+            try {
+                PendingTodo first = queue.poll(POLL_TIMEOUT_MILLIS, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    if (!accepting) {
+                        return;
+                    }
+                    continue;
+                }
+                batch.add(first);
+                queue.drainTo(batch, batchSize - 1);
+                categorize(batch);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (RuntimeException e) {
+                LOG.error("Could not categorize " + batch.size() + " todos:", e);
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    /**
+     * Classifies a micro-batch and writes the categories back in one JDBC batch.
+     * Todos whose category was changed in the meantime are left untouched.
+     */
+    private void categorize(List<PendingTodo> batch) {
+        List<String> categories = new ArrayList<>(batch.size());
+        for (PendingTodo todo : batch) {
+            categories.add(modelRegistry.predictClass(todo.title()));
+        }
+        int[] updateCounts = transactionTemplate.execute(status -> {
+            long changeSeq = changeSequence.next();
+            List<Object[]> updates = new ArrayList<>(batch.size());
+            for (int i = 0; i < batch.size(); i++) {
+                updates.add(new Object[]{categories.get(i), changeSeq, batch.get(i).id(), PENDING_CATEGORY});
+            }
+            return jdbcTemplate.batchUpdate(UPDATE_CATEGORY_SQL, updates);
+        });
+        changeVersion.bump();
+        publishUpdated(batch, updateCounts);
+
+        long now = System.nanoTime();
+        for (PendingTodo todo : batch) {
+            lagTimer.record(now - todo.enqueuedNanos(), TimeUnit.NANOSECONDS);
+        }
+    }
+
+    /**
+     * Publishes an update event for every Todo of the micro-batch whose category was written.
+     * The events carry the whole Todo, so the updated Todos are loaded with their assignees in one statement.
+     */
+    private void publishUpdated(List<PendingTodo> batch, int[] updateCounts) {
+        List<Long> ids = new ArrayList<>(batch.size());
+        for (int i = 0; i < updateCounts.length; i++) {
+            // drivers may report Statement.SUCCESS_NO_INFO instead of the number of updated rows
+            if (updateCounts[i] != 0) {
+                ids.add(batch.get(i).id());
+            }
+        }
+        if (ids.isEmpty()) {
+            return;
+        }
+        for (Todo todo : todoRepository.findAllWithAssigneesByIdIn(ids)) {
+            changeFeed.publish(ChangeType.TODO_UPDATED, TodoService.mapToGetTodoDTO(todo));
+        }
+    }
+}
@@ -0,0 +1,317 @@
+package de.unistuttgart.iste.ese.api.todos;
+
+import org.w3c.dom.Document;
+import org.w3c.dom.Element;
+import org.w3c.dom.Node;
+import org.w3c.dom.NodeList;
+
+import javax.xml.XMLConstants;
+import javax.xml.parsers.DocumentBuilderFactory;
+import java.io.ByteArrayInputStream;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * A specialized scorer compiled from a PMML text classification model.
+ * Supports binary logit RegressionModels over TF-IDF features of the form
+ * {@code idf * TextIndex(lowercase(text), term)}, which is what our training pipeline exports.
+ * Scoring tokenizes the title in a single pass and sums precomputed idf * coefficient weights
+ * from primitive arrays, so no objects are allocated per prediction.
+ * Only ASCII titles without symbols are scored: the evaluator lowercases whole strings, which folds
+ * characters like 'İ' into several, and its notion of punctuation differs from {@code \p{Punct}} for
+ * symbols such as '$' or '+'. Other titles are left to the evaluator.
+ */
+final class CompiledTodoModel {
+
+    private static final String DEFAULT_WORD_SEPARATOR = "\\s+";
+
+    // open-addressing hash table over the terms, holding term index + 1 (0 marks an empty slot)
+    private final int[] slots;
+    private final char[][] terms;
+    private final double[] weights;
+    private final double intercept;
+    private final String positiveLabel;
+    private final String negativeLabel;
+
+    private CompiledTodoModel(List<String> termList, List<Double> weightList, double intercept,
+                              String positiveLabel, String negativeLabel) {
+        this.terms = new char[termList.size()][];
+        this.weights = new double[termList.size()];
+        int capacity = Integer.highestOneBit(Math.max(termList.size(), 1) * 4);
+        this.slots = new int[capacity];
+        for (int i = 0; i < termList.size(); i++) {
+            terms[i] = termList.get(i).toCharArray();
+            weights[i] = weightList.get(i);
+            int slot = hash(terms[i], 0, terms[i].length) & (capacity - 1);
+            while (slots[slot] != 0) {
+                slot = (slot + 1) & (capacity - 1);
+            }
+            slots[slot] = i + 1;
+        }
+        this.intercept = intercept;
+        this.positiveLabel = positiveLabel;
+        this.negativeLabel = negativeLabel;
+    }
+
+    /**
+     * Predicts the class/category of a given input text.
+     *
+     * @param inputString The input text to be classified.
+     * @return The predicted class/category for the input text, or null if it has to be evaluated by the evaluator.
+     */
+    String predictClass(String inputString) {
+        double probability = probability(inputString);
+        if (Double.isNaN(probability)) {
+            return null;
+        }
+        return probability >= 0.5 ? positiveLabel : negativeLabel;
+    }
+
+    /**
+     * Computes the probability of the positive target category for a given input text.
+     *
+     * @param inputString The input text to be classified.
+     * @return The logistic function of the regression score, or NaN if the text contains characters that are not scored.
+     */
+    double probability(String inputString) {
+        double score = intercept;
+        int length = inputString.length();
+        int i = 0;
+        while (i < length) {
+            while (i < length && isWordSeparator(inputString.charAt(i))) {
+                i++;
+            }
+            int start = i;
+            while (i < length && !isWordSeparator(inputString.charAt(i))) {
+                if (!isScored(inputString.charAt(i))) {
+                    return Double.NaN;
+                }
+                i++;
+            }
+            // PMML trims punctuation from both ends of every token
+            int end = i;
+            while (start < end && isPunctuation(inputString.charAt(start))) {
+                start++;
+            }
+            while (end > start && isPunctuation(inputString.charAt(end - 1))) {
+                end--;
+            }
+            if (start < end) {
+                int term = lookup(inputString, start, end);
+                if (term >= 0) {
+                    score += weights[term];
+                }
+            }
+        }
+        return 1.0 / (1.0 + Math.exp(-score));
+    }
+
+    private int lookup(String text, int start, int end) {
+        int mask = slots.length - 1;
+        int slot = hash(text, start, end) & mask;
+        while (slots[slot] != 0) {
+            int term = slots[slot] - 1;
+            if (matches(terms[term], text, start, end)) {
+                return term;
+            }
+            slot = (slot + 1) & mask;
+        }
+        return -1;
+    }
+
+    private static boolean matches(char[] term, String text, int start, int end) {
+        if (term.length != end - start) {
+            return false;
+        }
+        for (int i = 0; i < term.length; i++) {
+            if (term[i] != Character.toLowerCase(text.charAt(start + i))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static int hash(String text, int start, int end) {
+        int h = 0;
+        for (int i = start; i < end; i++) {
+            h = 31 * h + Character.toLowerCase(text.charAt(i));
+        }
+        return h ^ (h >>> 16);
+    }
+
+    private static int hash(char[] term, int start, int end) {
+        int h = 0;
+        for (int i = start; i < end; i++) {
+            h = 31 * h + term[i];
+        }
+        return h ^ (h >>> 16);
+    }
+
+    /**
+     * Matches the characters that are lowercased and tokenized the same way by the evaluator:
+     * ASCII characters except the symbols of {@code \p{Punct}} that Unicode does not classify as punctuation.
+     */
+    private static boolean isScored(char c) {
+        return c < 0x80 && "$+<=>^`|~".indexOf(c) < 0;
+    }
+
+    /**
+     * Matches the characters of the regular expression {@code \s}.
+     */
+    private static boolean isWordSeparator(char c) {
+        return c == ' ' || c == '\t' || c == '\n' || c == '\u000B' || c == '\f' || c == '\r';
+    }
+
+    /**
+     * Matches the characters of the regular expression {@code \p{Punct}}.
+     */
+    private static boolean isPunctuation(char c) {
+        return (c >= '!' && c <= '/') || (c >= ':' && c <= '@') || (c >= '[' && c <= '`') || (c >= '{' && c <= '~');
+    }
+
+    /**
+     * Compiles a PMML document into a specialized scorer.
+     *
+     * @param pmml The PMML document.
+     * @return The compiled model.
+     * @throws IllegalArgumentException If the model uses features the compiler does not support.
+     */
+    static CompiledTodoModel compile(byte[] pmml) {
+        Document document;
+        try {
+            DocumentBuilderFactory factory = DocumentBuilderFactory.newInstance();
+            factory.setNamespaceAware(true);
+            factory.setFeature(XMLConstants.FEATURE_SECURE_PROCESSING, true);
+            factory.setFeature("http://apache.org/xml/features/disallow-doctype-decl", true);
+            document = factory.newDocumentBuilder().parse(new ByteArrayInputStream(pmml));
+        } catch (Exception e) {
+            throw new IllegalArgumentException("Could not parse PMML document", e);
+        }
+
+        Element model = single(document.getDocumentElement(), "RegressionModel");
+        require("classification".equals(model.getAttribute("functionName")), "only classification models are supported");
+        require("logit".equals(model.getAttribute("normalizationMethod")), "only logit normalization is supported");
+
+        // the target field name encodes the labels, e.g. "['private' 'work']"
+        String targetField = null;
+        for (Element field : children(single(model, "MiningSchema"), "MiningField")) {
+            if ("target".equals(field.getAttribute("usageType"))) {
+                targetField = field.getAttribute("name");
+            }
+        }
+        require(targetField != null, "model has no target field");
+        String[] labels = targetField.replaceAll("[\\['\\]]", "").split(" ");
+
+        Map<String, Object[]> derivedTerms = compileDerivedFields(document.getDocumentElement());
+
+        List<Element> tables = children(model, "RegressionTable");
+        require(tables.size() == 2, "only binary classification is supported");
+        Element positive = null;
+        Element negative = null;
+        for (Element table : tables) {
+            if (!children(table, "NumericPredictor").isEmpty() || table.getAttribute("intercept").isEmpty()
+                || Double.parseDouble(table.getAttribute("intercept")) != 0.0) {
+                positive = table;
+            } else {
+                negative = table;
+            }
+        }
+        require(positive != null && negative != null && positive != negative, "expected one regression table as reference category");
+        require(children(positive, "CategoricalPredictor").isEmpty() && children(positive, "PredictorTerm").isEmpty(),
+            "only numeric predictors are supported");
+
+        List<String> terms = new ArrayList<>();
+        List<Double> weights = new ArrayList<>();
+        Map<String, Integer> termIndex = new HashMap<>();
+        for (Element predictor : children(positive, "NumericPredictor")) {
+            String exponent = predictor.getAttribute("exponent");
+            require(exponent.isEmpty() || Integer.parseInt(exponent) == 1, "only linear predictors are supported");
+            Object[] derived = derivedTerms.get(predictor.getAttribute("name"));
+            require(derived != null, "predictor " + predictor.getAttribute("name") + " is not a TF-IDF term");
+            String term = (String) derived[0];
+            double weight = (Double) derived[1] * Double.parseDouble(predictor.getAttribute("coefficient"));
+            Integer existing = termIndex.get(term);
+            if (existing != null) {
+                weights.set(existing, weights.get(existing) + weight);
+            } else {
+                termIndex.put(term, terms.size());
+                terms.add(term);
+                weights.add(weight);
+            }
+        }
+
+        return new CompiledTodoModel(terms, weights, Double.parseDouble(positive.getAttribute("intercept")),
+            label(labels, positive.getAttribute("targetCategory")), label(labels, negative.getAttribute("targetCategory")));
+    }
+
+    /**
+     * Collects the TF-IDF derived fields of the transformation dictionary.
+     *
+     * @return The (term, idf) pairs keyed by derived field name.
+     */
+    private static Map<String, Object[]> compileDerivedFields(Element pmml) {
+        Map<String, Object[]> derivedTerms = new HashMap<>();
+        String lowercaseField = null;
+        for (Element field : children(single(pmml, "TransformationDictionary"), "DerivedField")) {
+            Element apply = single(field, "Apply");
+            if ("lowercase".equals(apply.getAttribute("function"))) {
+                lowercaseField = field.getAttribute("name");
+                continue;
+            }
+            require("*".equals(apply.getAttribute("function")), "unsupported function " + apply.getAttribute("function"));
+            Element idf = single(apply, "Constant");
+            Element textIndex = single(apply, "TextIndex");
+            require(textIndex.getAttribute("textField").equals(lowercaseField), "text index must use the lowercased text");
+            requireDefault(textIndex, "localTermWeights", "termFrequency");
+            requireDefault(textIndex, "isCaseSensitive", "false");
+            requireDefault(textIndex, "maxLevenshteinDistance", "0");
+            requireDefault(textIndex, "countHits", "allHits");
+            requireDefault(textIndex, "wordSeparatorCharacterRE", DEFAULT_WORD_SEPARATOR);
+            requireDefault(textIndex, "tokenize", "true");
+            String term = single(textIndex, "Constant").getTextContent().trim().toLowerCase(Locale.ROOT);
+            require(!term.isEmpty() && term.chars().noneMatch(c -> isWordSeparator((char) c))
+                && !isPunctuation(term.charAt(0)) && !isPunctuation(term.charAt(term.length() - 1)),
+                "only single-word terms are supported");
+            derivedTerms.put(field.getAttribute("name"), new Object[]{term, Double.parseDouble(idf.getTextContent().trim())});
+        }
+        return derivedTerms;
+    }
+
+    private static String label(String[] labels, String targetCategory) {
+        int index = Integer.parseInt(targetCategory);
+        require(index >= 0 && index < labels.length, "target category " + targetCategory + " has no label");
+        return labels[index];
+    }
+
+    private static void requireDefault(Element element, String attribute, String defaultValue) {
+        String value = element.getAttribute(attribute);
+        require(value.isEmpty() || value.equals(defaultValue), "unsupported " + attribute + " " + value);
+    }
+
+    private static void require(boolean condition, String message) {
+        if (!condition) {
+            throw new IllegalArgumentException("Cannot compile model: " + message);
+        }
+    }
+
+    private static Element single(Element parent, String name) {
+        List<Element> elements = children(parent, name);
+        require(elements.size() == 1, "expected exactly one " + name);
+        return elements.get(0);
+    }
+
+    private static List<Element> children(Element parent, String name) {
+        List<Element> elements = new ArrayList<>();
+        NodeList nodes = parent.getChildNodes();
+        for (int i = 0; i < nodes.getLength(); i++) {
+            Node node = nodes.item(i);
+            if (node.getNodeType() == Node.ELEMENT_NODE && name.equals(node.getLocalName())) {
+                elements.add((Element) node);
+            }
+        }
+        return elements;
+    }
+}
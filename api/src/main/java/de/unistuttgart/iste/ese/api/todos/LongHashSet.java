@@ -0,0 +1,70 @@
+package de.unistuttgart.iste.ese.api.todos;
+
+/**
+ * A minimal hash set of primitive longs, used to deduplicate entities by id
+ * without boxing the ids. Open addressing with linear probing.
+ */
+final class LongHashSet {
+
+    private static final float LOAD_FACTOR = 0.5f;
+
+    // 0 marks an empty slot, the key 0 is tracked separately
+    private long[] keys;
+    private boolean containsZero;
+    private int size;
+
+    LongHashSet(int expectedSize) {
+        int capacity = Integer.highestOneBit(Math.max(2, (int) (expectedSize / LOAD_FACTOR)) - 1) << 1;
+        keys = new long[capacity];
+    }
+
+    /**
+     * Adds a key unless it is present.
+     *
+     * @param key The key.
+     * @return true if the key was added, false if it was present.
+     */
+    boolean add(long key) {
+        if (key == 0) {
+            if (containsZero) {
+                return false;
+            }
+            containsZero = true;
+            return true;
+        }
+        int mask = keys.length - 1;
+        int slot = hash(key) & mask;
+        while (keys[slot] != 0) {
+            if (keys[slot] == key) {
+                return false;
+            }
+            slot = (slot + 1) & mask;
+        }
+        keys[slot] = key;
+        if (++size > keys.length * LOAD_FACTOR) {
+            resize();
+        }
+        return true;
+    }
+
+    private void resize() {
+        long[] oldKeys = keys;
+        keys = new long[oldKeys.length * 2];
+        int mask = keys.length - 1;
+        for (long key : oldKeys) {
+            if (key != 0) {
+                int slot = hash(key) & mask;
+                while (keys[slot] != 0) {
+                    slot = (slot + 1) & mask;
+                }
+                keys[slot] = key;
+            }
+        }
+    }
+
+    private static int hash(long key) {
+        // Fibonacci hashing spreads sequential ids over the table
+        long hash = key * 0x9E3779B97F4A7C15L;
+        return (int) (hash ^ (hash >>> 32));
+    }
+}
@@ -0,0 +1,293 @@
+package de.unistuttgart.iste.ese.api.todos;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import de.unistuttgart.iste.ese.api.jfr.ModelEvaluationEvent;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.MultiGauge;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.actuate.info.Info;
+import org.springframework.boot.actuate.info.InfoContributor;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.time.Instant;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Holds the active Todo classification model and swaps in new model versions at runtime.
+ * Besides the bundled classpath model, versioned PMML files named {@code model-<version>.pmml}
+ * are loaded from todos.model.directory, which is watched for new files. A new model is loaded and
+ * warmed up in the background and then published with a single volatile write, so predictions
+ * never block on a model change. Predictions are cached by normalized title.
+ */
+@Component
+public class ModelRegistry implements InfoContributor {
+
+    private static final Log LOG = LogFactory.getLog(ModelRegistry.class);
+
+    private static final String BUNDLED_MODEL = "model.pmml";
+
+    private static final String BUNDLED_VERSION = "bundled";
+
+    private static final Pattern MODEL_FILE = Pattern.compile("model-(.+)\\.pmml");
+
+    private static final Pattern WHITESPACE = Pattern.compile("\\s+");
+
+    private static final int PREDICTION_CACHE_SIZE = 10_000;
+
+    /**
+     * A model together with its version. Predictions are cached per generation,
+     * so an in-flight prediction of a replaced model can never be served for the new one.
+     */
+    private record ActiveModel(String version, long generation, TodoModel model, Instant activatedAt) {
+    }
+
+    private record PredictionKey(long generation, String title) {
+    }
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${todos.model.directory:}")
+    private String modelDirectory;
+
+    @Value("${todos.model.warmup-iterations:20000}")
+    private int warmupIterations;
+
+    // predictions bounded by size with frequency-based (TinyLFU) eviction
+    private final Cache<PredictionKey, String> predictionCache = Caffeine.newBuilder()
+        .maximumSize(PREDICTION_CACHE_SIZE)
+        .recordStats()
+        .build();
+
+    private volatile ActiveModel active;
+    private MultiGauge activeVersionGauge;
+    private ExecutorService loader;
+    private WatchService watchService;
+
+    /**
+     * Loads and warms up the newest available model and starts watching the model directory.
+     */
+    @PostConstruct
+    void start() throws IOException {
+        CaffeineCacheMetrics.monitor(meterRegistry, predictionCache, "todoPredictions");
+        activeVersionGauge = MultiGauge.builder("todos.model.active")
+            .description("The active classification model version (value 1)")
+            .register(meterRegistry);
+
+        activate(BUNDLED_VERSION, new TodoModel(BUNDLED_MODEL));
+        if (modelDirectory.isBlank()) {
+            return;
+        }
+
+        Path directory = Path.of(modelDirectory);
+        Files.createDirectories(directory);
+        Path newest = null;
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(directory, "model-*.pmml")) {
+            for (Path file : files) {
+                if (newest == null || compareVersions(versionOf(file), versionOf(newest)) > 0) {
+                    newest = file;
+                }
+            }
+        }
+        if (newest != null) {
+            load(newest);
+        }
+
+        loader = Executors.newSingleThreadExecutor(Thread.ofPlatform().name("model-loader").daemon().factory());
+        watchService = FileSystems.getDefault().newWatchService();
+        directory.register(watchService, StandardWatchEventKinds.ENTRY_CREATE, StandardWatchEventKinds.ENTRY_MODIFY);
+        Thread.ofPlatform().name("model-watcher").daemon().start(() -> watch(directory));
+    }
+
+    /**
+     * Stops watching the model directory.
+     */
+    @PreDestroy
+    void stop() throws IOException {
+        if (watchService != null) {
+            watchService.close();
+            loader.shutdownNow();
+        }
+    }
+
+    /**
+     * Predicts the class/category of a given title with the active model.
+     *
+     * @param title The title to classify.
+     * @return The predicted class/category, or "unknown" if no model is loaded.
+     */
+    public String predictClass(String title) {
+        ModelEvaluationEvent event = new ModelEvaluationEvent();
+        event.begin();
+        ActiveModel current = active;
+        String category;
+        boolean[] evaluated = new boolean[1];
+        if (!current.model().isLoaded()) {
+            category = current.model().predictClass(title);
+        } else {
+            category = predictionCache.get(new PredictionKey(current.generation(), normalize(title)), key -> {
+                evaluated[0] = true;
+                return current.model().predictClass(key.title());
+            });
+        }
+        if (event.shouldCommit()) {
+            event.titleLength = title.length();
+            event.predictedClass = category;
+            event.modelVersion = current.version();
+            event.cacheHit = !evaluated[0];
+            event.commit();
+        }
+        return category;
+    }
+
+    /**
+     * Returns the active model, e.g. to classify many titles with one consistent model version
+     * without going through the prediction cache.
+     *
+     * @return The active model.
+     */
+    public TodoModel getActiveModel() {
+        return active.model();
+    }
+
+    /**
+     * Returns the version of the active model.
+     *
+     * @return The version, "bundled" for the model shipped with the application.
+     */
+    public String getActiveVersion() {
+        return active.version();
+    }
+
+    @Override
+    public void contribute(Info.Builder builder) {
+        ActiveModel current = active;
+        Map<String, Object> details = new LinkedHashMap<>();
+        details.put("version", current.version());
+        details.put("loaded", current.model().isLoaded());
+        details.put("activatedAt", current.activatedAt().toString());
+        builder.withDetail("model", details);
+    }
+
+    private void watch(Path directory) {
+        while (true) {
+            WatchKey key;
+            try {
+                key = watchService.take();
+            } catch (InterruptedException | ClosedWatchServiceException e) {
+                return;
+            }
+            for (WatchEvent<?> event : key.pollEvents()) {
+                if (event.context() instanceof Path name && MODEL_FILE.matcher(name.toString()).matches()) {
+                    Path file = directory.resolve(name);
+                    loader.execute(() -> {
+                        if (compareVersions(versionOf(file), active.version()) >= 0) {
+                            load(file);
+                        }
+                    });
+                }
+            }
+            if (!key.reset()) {
+                LOG.warn("Model directory " + directory + " is no longer accessible");
+                return;
+            }
+        }
+    }
+
+    /**
+     * Loads a model file, warms it up and activates it if it loaded successfully.
+     */
+    private void load(Path file) {
+        String version = versionOf(file);
+        TodoModel model = new TodoModel(file.toString());
+        if (!model.isLoaded()) {
+            LOG.warn("Keeping model version " + active.version() + ", version " + version + " could not be loaded");
+            return;
+        }
+        activate(version, model);
+    }
+
+    private void activate(String version, TodoModel model) {
+        warmUp(model);
+        long generation = active != null ? active.generation() + 1 : 0;
+        active = new ActiveModel(version, generation, model, Instant.now());
+        predictionCache.invalidateAll();
+        activeVersionGauge.register(List.of(MultiGauge.Row.of(Tags.of("version", version), 1)), true);
+        LOG.info("Activated classification model version " + version);
+    }
+
+    /**
+     * Runs the model on a synthetic title corpus so the scoring code is compiled by the JIT
+     * before the model serves requests.
+     */
+    private void warmUp(TodoModel model) {
+        if (!model.isLoaded()) {
+            return;
+        }
+        List<String> corpus = TodoModel.PARITY_CORPUS;
+        for (int i = 0; i < warmupIterations; i++) {
+            model.predictClass(corpus.get(i % corpus.size()));
+        }
+    }
+
+    private static String normalize(String title) {
+        return WHITESPACE.matcher(title.trim().toLowerCase(Locale.ROOT)).replaceAll(" ");
+    }
+
+    private static String versionOf(Path file) {
+        Matcher matcher = MODEL_FILE.matcher(file.getFileName().toString());
+        return matcher.matches() ? matcher.group(1) : file.getFileName().toString();
+    }
+
+    /**
+     * Compares versions segment by segment, numerically where both segments are numbers.
+     * The bundled model is older than every versioned model.
+     */
+    static int compareVersions(String a, String b) {
+        if (a.equals(b)) {
+            return 0;
+        }
+        if (BUNDLED_VERSION.equals(a)) {
+            return -1;
+        }
+        if (BUNDLED_VERSION.equals(b)) {
+            return 1;
+        }
+        String[] left = a.split("[.\\-_]");
+        String[] right = b.split("[.\\-_]");
+        for (int i = 0; i < Math.min(left.length, right.length); i++) {
+            int result = left[i].matches("\\d+") && right[i].matches("\\d+")
+                ? Long.compare(Long.parseLong(left[i]), Long.parseLong(right[i]))
+                : left[i].compareTo(right[i]);
+            if (result != 0) {
+                return result;
+            }
+        }
+        return Integer.compare(left.length, right.length);
+    }
+}
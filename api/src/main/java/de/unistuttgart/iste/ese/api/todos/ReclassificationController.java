@@ -0,0 +1,59 @@
+package de.unistuttgart.iste.ese.api.todos;
+
+import de.unistuttgart.iste.ese.api.ApiVersion1;
+import de.unistuttgart.iste.ese.api.todos.dtos.ReclassificationStatusDTO;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.server.ResponseStatusException;
+
+/**
+ * Admin endpoints for recomputing the categories of existing Todos.
+ * Delegates to the ReclassificationJob.
+ */
+@RestController
+@ApiVersion1
+public class ReclassificationController {
+
+    @Autowired
+    private ReclassificationJob reclassificationJob;
+
+    /**
+     * Starts reclassifying all Todos with the active model.
+     *
+     * @param afterId Optional id to resume after, e.g. the lastId reported by a cancelled or failed run.
+     * @return The status of the started run.
+     * @throws ResponseStatusException If a reclassification is already running.
+     */
+    @PostMapping("/admin/reclassifications")
+    @ResponseStatus(HttpStatus.ACCEPTED)
+    public ReclassificationStatusDTO startReclassification(@RequestParam(required = false) Long afterId) {
+        return reclassificationJob.start(afterId);
+    }
+
+    /**
+     * Retrieves the progress of the current or last reclassification.
+     *
+     * @return The status of the run.
+     * @throws ResponseStatusException If no reclassification has been started.
+     */
+    @GetMapping("/admin/reclassifications/current")
+    public ReclassificationStatusDTO getReclassification() {
+        return reclassificationJob.getStatus();
+    }
+
+    /**
+     * Cancels the running reclassification after its current page.
+     *
+     * @return The status of the run.
+     * @throws ResponseStatusException If no reclassification has been started.
+     */
+    @DeleteMapping("/admin/reclassifications/current")
+    public ReclassificationStatusDTO cancelReclassification() {
+        ReclassificationStatusDTO status = reclassificationJob.cancel();
+        if (status == null) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, "No reclassification has been started");
+        }
+        return status;
+    }
+}
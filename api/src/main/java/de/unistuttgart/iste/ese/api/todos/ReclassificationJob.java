@@ -0,0 +1,215 @@
+package de.unistuttgart.iste.ese.api.todos;
+
+import de.unistuttgart.iste.ese.api.cache.ChangeVersion;
+import de.unistuttgart.iste.ese.api.changes.ChangeFeed;
+import de.unistuttgart.iste.ese.api.sync.ChangeSequence;
+import de.unistuttgart.iste.ese.api.todos.dtos.ReclassificationStatusDTO;
+import jakarta.annotation.PreDestroy;
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Recomputes the category of all existing Todos, e.g. after a new model was activated.
+ * The table is read page by page with keyset iteration on the id, each page is classified in
+ * parallel on a dedicated fork-join pool and the changed categories are written back with one
+ * JDBC batch per page in its own transaction. Memory use is bounded by the page size, and the job
+ * runs on its own threads so the request threads are not affected. The cached responses are invalidated
+ * and the change feed subscribers are told to resync once when the run ends, not after every page.
+ */
+@Component
+public class ReclassificationJob {
+
+    private static final Log LOG = LogFactory.getLog(ReclassificationJob.class);
+
+    private static final String SELECT_PAGE_SQL =
+        "select id, title, category from todos where id > ? and title is not null order by id limit ?";
+
+    private static final String UPDATE_CATEGORY_SQL = "update todos set category = ?, version = version + 1, change_seq = ? where id = ? and title = ?";
+
+    private enum State { RUNNING, COMPLETED, CANCELLED, FAILED }
+
+    private record Row(long id, String title, String category) {
+    }
+
+    /**
+     * The progress of one run, written by the job thread and read by status requests.
+     */
+    private static final class Run {
+        final String modelVersion;
+        final long startedAt = System.currentTimeMillis();
+        final long maxId;
+        volatile State state = State.RUNNING;
+        volatile boolean cancelled;
+        volatile long lastId;
+        volatile long processed;
+        volatile long updated;
+        volatile Long finishedAt;
+        volatile String error;
+
+        Run(String modelVersion, long afterId, long maxId) {
+            this.modelVersion = modelVersion;
+            this.lastId = afterId;
+            this.maxId = maxId;
+        }
+    }
+
+    @Autowired
+    private ModelRegistry modelRegistry;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private ChangeSequence changeSequence;
+
+    @Autowired
+    private ChangeVersion changeVersion;
+
+    @Autowired
+    private ChangeFeed changeFeed;
+
+    @Value("${todos.reclassification.page-size:1000}")
+    private int pageSize;
+
+    @Value("${todos.reclassification.pause-millis:0}")
+    private long pauseMillis;
+
+    private final ExecutorService executor =
+        Executors.newSingleThreadExecutor(Thread.ofPlatform().name("todo-reclassification").daemon().factory());
+
+    private final ForkJoinPool classificationPool =
+        new ForkJoinPool(Math.max(1, Runtime.getRuntime().availableProcessors() / 2));
+
+    private Run current;
+
+    /**
+     * Stops a running job and releases the worker threads.
+     */
+    @PreDestroy
+    void stop() {
+        cancel();
+        executor.shutdownNow();
+        classificationPool.shutdownNow();
+    }
+
+    /**
+     * Starts reclassifying all Todos with an id greater than afterId using the active model.
+     *
+     * @param afterId The id to resume after, e.g. the lastId of a cancelled or failed run, or null to start from the beginning.
+     * @return The status of the new run.
+     * @throws ResponseStatusException If a reclassification is already running.
+     */
+    public synchronized ReclassificationStatusDTO start(Long afterId) {
+        if (current != null && current.state == State.RUNNING) {
+            throw new ResponseStatusException(HttpStatus.CONFLICT, "A reclassification is already running");
+        }
+        Long maxId = jdbcTemplate.queryForObject("select max(id) from todos", Long.class);
+        Run run = new Run(modelRegistry.getActiveVersion(), afterId != null ? afterId : 0, maxId != null ? maxId : 0);
+        TodoModel model = modelRegistry.getActiveModel();
+        current = run;
+        executor.execute(() -> execute(run, model));
+        return toStatus(run);
+    }
+
+    /**
+     * Returns the status of the current or last run.
+     *
+     * @return The status.
+     * @throws ResponseStatusException If no reclassification has been started yet.
+     */
+    public synchronized ReclassificationStatusDTO getStatus() {
+        if (current == null) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, "No reclassification has been started");
+        }
+        return toStatus(current);
+    }
+
+    /**
+     * Requests cancellation of the running job. The job stops after the current page.
+     *
+     * @return The status of the run, or null if there is none.
+     */
+    public synchronized ReclassificationStatusDTO cancel() {
+        if (current == null) {
+            return null;
+        }
+        current.cancelled = true;
+        return toStatus(current);
+    }
+
+    private void execute(Run run, TodoModel model) {
+        try {
+            while (!run.cancelled) {
+                List<Row> page = jdbcTemplate.query(SELECT_PAGE_SQL,
+                    (rs, rowNum) -> new Row(rs.getLong(1), rs.getString(2), rs.getString(3)), run.lastId, pageSize);
+                if (page.isEmpty()) {
+                    break;
+                }
+
+                // the change number is set in the transaction of the batch
+                List<Object[]> updates = classificationPool.submit(() -> page.parallelStream()
+                    .map(row -> {
+                        String category = model.predictClass(row.title());
+                        return Objects.equals(category, row.category()) ? null : new Object[]{category, null, row.id(), row.title()};
+                    })
+                    .filter(Objects::nonNull)
+                    .toList()).get();
+                if (!updates.isEmpty()) {
+                    transactionTemplate.executeWithoutResult(status -> {
+                        long changeSeq = changeSequence.next();
+                        for (Object[] update : updates) {
+                            update[1] = changeSeq;
+                        }
+                        jdbcTemplate.batchUpdate(UPDATE_CATEGORY_SQL, updates);
+                    });
+                }
+
+                run.lastId = page.get(page.size() - 1).id();
+                run.processed += page.size();
+                run.updated += updates.size();
+                if (pauseMillis > 0) {
+                    Thread.sleep(pauseMillis);
+                }
+            }
+            run.state = run.cancelled ? State.CANCELLED : State.COMPLETED;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            run.state = State.CANCELLED;
+        } catch (ExecutionException | RuntimeException e) {
+            LOG.error("Reclassification failed after id " + run.lastId + ":", e);
+            run.error = e.getMessage();
+            run.state = State.FAILED;
+        } finally {
+            run.finishedAt = System.currentTimeMillis();
+            // also after a cancelled or failed run, its committed pages stay changed
+            if (run.updated > 0) {
+                changeVersion.bump();
+                changeFeed.publishResync();
+            }
+        }
+        LOG.info("Reclassification " + run.state.name().toLowerCase() + ": " + run.processed + " todos processed, "
+            + run.updated + " updated, last id " + run.lastId);
+    }
+
+    private static ReclassificationStatusDTO toStatus(Run run) {
+        return new ReclassificationStatusDTO(run.state.name(), run.modelVersion, run.startedAt, run.finishedAt,
+            run.lastId, run.maxId, run.processed, run.updated, run.error);
+    }
+}
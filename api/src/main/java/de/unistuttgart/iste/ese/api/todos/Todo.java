@@ -1,8 +1,13 @@
 package de.unistuttgart.iste.ese.api.todos;
 
+import de.unistuttgart.iste.ese.api.IdSequences;
 import de.unistuttgart.iste.ese.api.assignees.Assignee;
 import jakarta.persistence.*;
 import jakarta.validation.constraints.Size;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.annotations.ColumnDefault;
+import org.hibernate.annotations.DynamicUpdate;
 
 import java.util.Date;
 import java.util.List;
@@ -11,13 +16,22 @@ import java.util.List;
  * Represents a Todo item stored in the "todos" table.
  * Includes details like title, description, status, assignees,
  * and relevant timestamps (created, due, and finished dates).
+ * Updates only write the changed columns and are checked against the version for concurrent writes.
+ * The change number of the last change is indexed for the delta sync.
  */
 @Entity
-@Table(name = "todos")
+@DynamicUpdate
+@Table(name = "todos", indexes = {
+    @Index(name = "idx_todos_finished_id", columnList = "finished, id"),
+    @Index(name = "idx_todos_category_id", columnList = "category, id"),
+    @Index(name = "idx_todos_due_date_id", columnList = "due_date, id"),
+    @Index(name = "idx_todos_change_seq_id", columnList = "change_seq, id")
+})
 public class Todo {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "todos_seq")
+    @SequenceGenerator(name = "todos_seq", sequenceName = "todos_seq", allocationSize = IdSequences.ALLOCATION_SIZE)
     @Column(name = "id")
     private Long id;
 
@@ -26,24 +40,41 @@ public class Todo {
 
     private String description;
 
+    @Column(name = "finished")
     private boolean finished;
 
+    // the ids of the assignees are kept in the second-level cache, the assignees themselves are cached as well
     @ManyToMany
+    @Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
     @JoinTable(
         name = "todo_assignee",
         joinColumns = @JoinColumn(name = "todo_id"),
-        inverseJoinColumns = @JoinColumn(name = "assignee_id")
+        inverseJoinColumns = @JoinColumn(name = "assignee_id"),
+        indexes = @Index(name = "idx_todo_assignee_assignee_todo", columnList = "assignee_id, todo_id")
     )
     private List<Assignee> assigneeList;
 
     private Date createdDate;
 
+    @Column(name = "due_date")
     private Date dueDate;
 
     private Date finishedDate;
 
+    @Column(name = "category")
     private String category;
 
+    // also incremented by the JDBC and bulk statements that change a todo or its assignees
+    @Version
+    @ColumnDefault("0")
+    @Column(name = "version", nullable = false)
+    private long version;
+
+    // the change number of the transaction that wrote the todo last, see ChangeSequence
+    @ColumnDefault("0")
+    @Column(name = "change_seq", nullable = false)
+    private long changeSeq;
+
     public Todo(String title, String description, boolean finished, List<Assignee> assigneList,
                 Date createdDate, Date dueDate, Date finishedDate, String category) {
         this.title = title;
@@ -59,6 +90,18 @@ public class Todo {
     public Todo() {
     }
 
+    public long getVersion() {
+        return version;
+    }
+
+    public long getChangeSeq() {
+        return changeSeq;
+    }
+
+    public void setChangeSeq(long changeSeq) {
+        this.changeSeq = changeSeq;
+    }
+
     public Long getId() {
         return id;
     }
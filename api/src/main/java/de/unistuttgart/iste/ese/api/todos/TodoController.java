@@ -1,20 +1,43 @@
 package de.unistuttgart.iste.ese.api.todos;
 
+import com.fasterxml.jackson.databind.JsonNode;
 import de.unistuttgart.iste.ese.api.ApiVersion1;
+import de.unistuttgart.iste.ese.api.MergePatch;
+import de.unistuttgart.iste.ese.api.cache.AcceptEncoding;
+import de.unistuttgart.iste.ese.api.cache.EntityTags;
+import de.unistuttgart.iste.ese.api.cache.ResponseCache;
+import de.unistuttgart.iste.ese.api.cache.Tagged;
+import de.unistuttgart.iste.ese.api.changes.ChangeFeed;
+import de.unistuttgart.iste.ese.api.metrics.CountingOutputStream;
+import de.unistuttgart.iste.ese.api.metrics.ServiceMetrics;
+import de.unistuttgart.iste.ese.api.sql.SqlBudget;
+import de.unistuttgart.iste.ese.api.todos.dtos.BatchCreateResultDTO;
+import de.unistuttgart.iste.ese.api.todos.dtos.BulkFinishDTO;
+import de.unistuttgart.iste.ese.api.todos.dtos.BulkResultDTO;
 import de.unistuttgart.iste.ese.api.todos.dtos.GetTodoDTO;
+import de.unistuttgart.iste.ese.api.todos.dtos.NormalizedTodoPageDTO;
 import de.unistuttgart.iste.ese.api.todos.dtos.PostTodoDTO;
 import de.unistuttgart.iste.ese.api.todos.dtos.TodoDTO;
-import jakarta.servlet.http.HttpServletResponse;
+import de.unistuttgart.iste.ese.api.todos.dtos.TodoPageDTO;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 import jakarta.validation.Valid;
 
-import java.io.IOException;
-import java.io.StringWriter;
+import java.io.BufferedWriter;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
 import java.nio.charset.StandardCharsets;
 import java.util.List;
+import java.util.zip.GZIPOutputStream;
 
 /**
  * Handles CRUD operations for todos.
@@ -24,9 +47,26 @@ import java.util.List;
 @ApiVersion1
 public class TodoController {
 
+    public static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+
+    private static final int CSV_BUFFER_SIZE = 8192;
+
+    private static final String SHAPE_EMBEDDED = "embedded";
+
+    private static final String SHAPE_NORMALIZED = "normalized";
+
     @Autowired
     private TodoService todoService;
 
+    @Autowired
+    private ServiceMetrics serviceMetrics;
+
+    @Autowired
+    private ResponseCache responseCache;
+
+    @Autowired
+    private ChangeFeed changeFeed;
+
     /**
      * Creates a new Todo by invoking the createTodo method in the TodoService
      *
@@ -34,32 +74,129 @@ public class TodoController {
      * @return A PostTodoDTO with the details of the newly created Todo.
      */
     @PostMapping("/todos")
+    @SqlBudget(statements = 8)
     @ResponseStatus(HttpStatus.CREATED)
     public PostTodoDTO createTodo(@Valid @RequestBody TodoDTO todoDTO) {
         return todoService.createTodo(todoDTO);
     }
 
     /**
-     * Retrieves all Todos by calling the getAllTodos method from the TodoService
+     * Creates many Todos at once by invoking the createTodos method in the TodoService.
+     * Items that fail validation are reported by their index without failing the whole batch.
+     *
+     * @param todoDTOs The data transfer objects containing the information for the new Todos.
+     * @return The created Todos, the per-item errors and the achieved throughput.
+     * @throws ResponseStatusException If the batch is empty or too large.
+     */
+    @PostMapping("/todos/batch")
+    // one assignee query plus sequence and insert batches of 50 for up to 10000 todos
+    @SqlBudget(statements = 701)
+    public BatchCreateResultDTO createTodos(@RequestBody List<TodoDTO> todoDTOs) {
+        return todoService.createTodos(todoDTOs);
+    }
+
+    /**
+     * Retrieves Todos by calling the getTodoPage method from the TodoService.
+     * One page of at most limit Todos is returned, of the largest page size if no limit is given, and the
+     * cursor of the next page is sent in the X-Next-Cursor header (absent on the last page).
+     * The response carries the change version as ETag; if it matches If-None-Match, 304 is returned
+     * without querying the database. Otherwise the serialized response is served from the ResponseCache,
+     * which computes it once for all concurrent identical requests and keeps it until the next write.
+     * The list is sent as JSON or, if requested with Accept: application/cbor, as CBOR.
+     * With shape=normalized, an object with the Todos carrying only assigneeIds and a deduplicated list
+     * of their assignees is returned instead of a list of Todos with embedded assignees.
+     *
+     * @param filter Optional filters on finished, category, assigneeId, dueFrom and dueTo.
+     * @param cursor The cursor of the page to retrieve, as returned with the previous page.
+     * @param limit The maximum number of Todos to return.
+     * @param shape The response shape, "embedded" (default) or "normalized".
+     * @param request The request, checked for If-None-Match.
+     * @return The serialized Todos, or null if not modified.
+     * @throws ResponseStatusException If the cursor, the limit or the shape is invalid.
+     */
+    @GetMapping(value = "/todos", produces = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_CBOR_VALUE})
+    @SqlBudget(statements = 2)
+    public ResponseEntity<byte[]> getAllTodos(TodoFilter filter,
+                                              @RequestParam(required = false) String cursor,
+                                              @RequestParam(required = false) Integer limit,
+                                              @RequestParam(required = false, defaultValue = SHAPE_EMBEDDED) String shape,
+                                              WebRequest request) {
+        if (!SHAPE_EMBEDDED.equals(shape) && !SHAPE_NORMALIZED.equals(shape)) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Shape must be embedded or normalized");
+        }
+        return responseCache.get("todos", request, () -> {
+            Object body;
+            String next;
+            if (SHAPE_NORMALIZED.equals(shape)) {
+                NormalizedTodoPageDTO page = todoService.getNormalizedTodoPage(filter, cursor, limit);
+                body = page;
+                next = page.next();
+            } else {
+                TodoPageDTO page = todoService.getTodoPage(filter, cursor, limit);
+                body = page.todos();
+                next = page.next();
+            }
+            ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+            if (next != null) {
+                response.header(NEXT_CURSOR_HEADER, next);
+            }
+            return response.body(body);
+        });
+    }
+
+    /**
+     * Streams the Todos matching the filter as newline-delimited JSON, one Todo per line.
+     * Selected with Accept: application/x-ndjson. The Todos are read in pages of bounded size
+     * and written as they are read, so neither the server nor the client has to hold the whole list.
+     *
+     * @param filter Optional filters on finished, category, assigneeId, dueFrom and dueTo.
+     * @return A streaming response body writing the Todos.
+     */
+    @GetMapping(value = "/todos", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    @SqlBudget(statements = 0)
+    public ResponseEntity<StreamingResponseBody> streamTodos(TodoFilter filter) {
+        StreamingResponseBody body = outputStream -> todoService.streamTodos(filter, outputStream);
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_NDJSON).body(body);
+    }
+
+    /**
+     * Subscribes to the changes of Todos and Assignees as server-sent events.
+     * Created and updated events carry the new Todo or Assignee, deleted events its id, and a resync
+     * event asks the client to load the Todos again, e.g. after bulk changes. A client reconnecting
+     * with Last-Event-ID receives the events it missed while they are still buffered.
      *
-     * @return A list of GetTodoDTO objects representing all the Todos in the system.
+     * @param lastEventId The id of the last event the client received, optional.
+     * @return The event stream.
      */
-    @GetMapping("/todos")
-    public List<GetTodoDTO> getAllTodos() {
-        return todoService.getAllTodos();
+    @GetMapping(value = "/todos/changes", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    @SqlBudget(statements = 0)
+    public ResponseEntity<SseEmitter> subscribeToChanges(@RequestHeader(value = "Last-Event-ID", required = false) String lastEventId) {
+        return ResponseEntity.ok().cacheControl(CacheControl.noStore()).body(changeFeed.subscribe(lastEventId));
     }
 
     /**
      * Fetches a Todo by its unique ID by invoking the getTodoById method in the TodoService.
      * If the Todo exists, it is returned as a GetTodoDTO. Otherwise, a 404 error is thrown.
+     * The ETag is built from the versions of the Todo and its assignees; send it as If-Match
+     * with PUT, PATCH or DELETE to make the write conditional, or as If-None-Match to receive 304.
      *
      * @param id The ID of the Todo to retrieve.
-     * @return A GetTodoDTO representing the Todo with the given ID.
+     * @param request The request, checked for If-None-Match.
+     * @return A GetTodoDTO representing the Todo with the given ID, or null if not modified.
      * @throws ResponseStatusException If no Todo with the given ID is found.
      */
-    @GetMapping("/todos/{id}")
-    public GetTodoDTO getTodoById(@PathVariable Long id) {
-        return todoService.getTodoById(id);
+    @GetMapping(value = "/todos/{id}", produces = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_CBOR_VALUE})
+    @SqlBudget(statements = 1)
+    public ResponseEntity<GetTodoDTO> getTodoById(@PathVariable Long id, WebRequest request) {
+        MediaType mediaType = ResponseCache.representationOf(request);
+        Tagged<GetTodoDTO> todo = todoService.getTodoById(id);
+        String etag = EntityTags.etag(todo.tag(), mediaType);
+        if (request.checkNotModified(etag)) {
+            return null;
+        }
+        return ResponseEntity.ok().eTag(etag).cacheControl(CacheControl.noCache())
+            .contentType(mediaType).header(HttpHeaders.VARY, HttpHeaders.ACCEPT)
+            .body(todo.body());
     }
 
     /**
@@ -69,12 +206,32 @@ public class TodoController {
      *
      * @param id      The ID of the Todo to update.
      * @param todoDTO The updated Todo data.
-     * @return A GetTodoDTO representing the updated Todo.
-     * @throws ResponseStatusException If no Todo with the given ID is found.
+     * @param ifMatch The ETag the update is based on, optional.
+     * @return A GetTodoDTO representing the updated Todo, with its new ETag.
+     * @throws ResponseStatusException If no Todo with the given ID is found or If-Match does not match (412).
      */
     @PutMapping("/todos/{id}")
-    public GetTodoDTO updateTodo(@PathVariable Long id, @Valid @RequestBody TodoDTO todoDTO) {
-        return todoService.updateTodo(id, todoDTO);
+    @SqlBudget(statements = 7)
+    public ResponseEntity<GetTodoDTO> updateTodo(@PathVariable Long id, @Valid @RequestBody TodoDTO todoDTO,
+                                                 @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        return tagged(todoService.updateTodo(id, todoDTO, ifMatch));
+    }
+
+    /**
+     * Applies a JSON Merge Patch to a Todo. Only the fields in the patch are changed, e.g.
+     * {"finished": true} flips the status without touching the title, the category or the assignees.
+     *
+     * @param id The ID of the Todo to patch.
+     * @param patch The merge patch with title, description, finished, dueDate and/or assigneeIdList.
+     * @param ifMatch The ETag the patch is based on, optional.
+     * @return A GetTodoDTO representing the patched Todo, with its new ETag.
+     * @throws ResponseStatusException If no Todo with the given ID is found, the patch is invalid or If-Match does not match (412).
+     */
+    @PatchMapping(value = "/todos/{id}", consumes = MergePatch.MEDIA_TYPE)
+    @SqlBudget(statements = 6)
+    public ResponseEntity<GetTodoDTO> patchTodo(@PathVariable Long id, @RequestBody JsonNode patch,
+                                                @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        return tagged(todoService.patchTodo(id, MergePatch.of(patch, TodoService.PATCHABLE_FIELDS), ifMatch));
     }
 
     /**
@@ -82,31 +239,87 @@ public class TodoController {
      * If the Todo exists, it will be deleted from the system. If not, a 404 error is thrown.
      *
      * @param id The ID of the Todo to delete.
-     * @throws ResponseStatusException If no Todo with the given ID is found.
+     * @param ifMatch The ETag the deletion is based on, optional.
+     * @throws ResponseStatusException If no Todo with the given ID is found or If-Match does not match (412).
      */
     @DeleteMapping("/todos/{id}")
-    public void deleteTodo(@PathVariable Long id) {
-        todoService.deleteTodoById(id);
+    @SqlBudget(statements = 7)
+    public void deleteTodo(@PathVariable Long id,
+                           @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        todoService.deleteTodoById(id, ifMatch);
+    }
+
+    private static ResponseEntity<GetTodoDTO> tagged(Tagged<GetTodoDTO> todo) {
+        return ResponseEntity.ok().eTag(EntityTags.etag(todo.tag(), MediaType.APPLICATION_JSON)).body(todo.body());
+    }
+
+    /**
+     * Marks many Todos as finished or unfinished with a single statement.
+     *
+     * @param bulkFinishDTO The ids of the Todos and the new status.
+     * @return The number of Todos whose status changed.
+     * @throws ResponseStatusException If no or too many ids are given.
+     */
+    @PutMapping("/todos/batch/finished")
+    @SqlBudget(statements = 2)
+    public BulkResultDTO setFinished(@Valid @RequestBody BulkFinishDTO bulkFinishDTO) {
+        return todoService.setFinished(bulkFinishDTO);
+    }
+
+    /**
+     * Deletes all Todos matching the filter with a single bulk delete.
+     * At least one filter criterion is required, DELETE /todos without a filter is rejected.
+     *
+     * @param filter The filters on finished, category, assigneeId, dueFrom and dueTo.
+     * @return The number of deleted Todos.
+     * @throws ResponseStatusException If no filter criterion is set.
+     */
+    @DeleteMapping("/todos")
+    @SqlBudget(statements = 4)
+    public BulkResultDTO deleteTodos(TodoFilter filter) {
+        return todoService.deleteTodos(filter);
     }
 
     /**
      * Exports all Todos to a CSV file by calling the exportTodosToCSV method in the TodoService.
      * The file will be downloaded with the name "todos.csv".
+     * The CSV is streamed to the client with chunked transfer encoding and gzip-compressed
+     * if the client accepts it, so the export is never buffered as a whole.
      *
-     * @param response The HttpServletResponse to write the CSV data to.
-     * @throws IOException If an error occurs while generating or streaming the CSV file.
+     * @param acceptEncoding The Accept-Encoding header of the request.
+     * @return A streaming response body writing the CSV data.
      */
     @GetMapping(value = "/csv-downloads/todos", produces = "text/csv")
-    public void exportTodosToCSV(HttpServletResponse response) throws IOException {
-        response.setContentType("text/csv; charset=UTF-8");
-        response.setHeader("Content-Disposition", "attachment; filename=\"todos.csv\"");
-
-        try (StringWriter writer = new StringWriter()) {
-            todoService.exportTodosToCSV(writer);
-            response.getOutputStream().write(writer.toString().getBytes(StandardCharsets.UTF_8));
-        } catch (IOException e) {
-            throw new ResponseStatusException(HttpStatus.INTERNAL_SERVER_ERROR, "Error generating CSV file", e);
+    // the export itself streams with a single statement on an async thread after the handler returned
+    @SqlBudget(statements = 0)
+    public ResponseEntity<StreamingResponseBody> exportTodosToCSV(
+        @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding) {
+        boolean gzip = AcceptEncoding.acceptsGzip(acceptEncoding);
+
+        StreamingResponseBody body = outputStream -> {
+            CountingOutputStream countingStream = new CountingOutputStream(outputStream);
+            GZIPOutputStream gzipStream = gzip ? new GZIPOutputStream(countingStream, CSV_BUFFER_SIZE) : null;
+            Writer writer = new BufferedWriter(new OutputStreamWriter(
+                gzipStream != null ? gzipStream : countingStream, StandardCharsets.UTF_8), CSV_BUFFER_SIZE);
+            try {
+                todoService.exportTodosToCSV(writer);
+                writer.flush();
+                if (gzipStream != null) {
+                    gzipStream.finish();
+                }
+            } finally {
+                serviceMetrics.count(TodoService.EXPORT_BYTES_COUNTER, countingStream.getCount(), "operation", "export");
+            }
+        };
+
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok()
+            .contentType(new MediaType("text", "csv", StandardCharsets.UTF_8))
+            .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"todos.csv\"")
+            .header(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+        if (gzip) {
+            response.header(HttpHeaders.CONTENT_ENCODING, "gzip");
         }
+        return response.body(body);
     }
 
 }
\ No newline at end of file
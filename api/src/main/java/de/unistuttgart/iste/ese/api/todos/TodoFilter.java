@@ -0,0 +1,59 @@
+package de.unistuttgart.iste.ese.api.todos;
+
+/**
+ * Optional filter criteria for listing Todos, bound from the query parameters of GET /todos.
+ * Every criterion that is null is ignored. Due dates are epoch milliseconds, the lower
+ * bound is inclusive and the upper bound exclusive.
+ */
+public class TodoFilter {
+
+    private Boolean finished;
+
+    private String category;
+
+    private Long assigneeId;
+
+    private Long dueFrom;
+
+    private Long dueTo;
+
+    public Boolean getFinished() {
+        return finished;
+    }
+
+    public void setFinished(Boolean finished) {
+        this.finished = finished;
+    }
+
+    public String getCategory() {
+        return category;
+    }
+
+    public void setCategory(String category) {
+        this.category = category;
+    }
+
+    public Long getAssigneeId() {
+        return assigneeId;
+    }
+
+    public void setAssigneeId(Long assigneeId) {
+        this.assigneeId = assigneeId;
+    }
+
+    public Long getDueFrom() {
+        return dueFrom;
+    }
+
+    public void setDueFrom(Long dueFrom) {
+        this.dueFrom = dueFrom;
+    }
+
+    public Long getDueTo() {
+        return dueTo;
+    }
+
+    public void setDueTo(Long dueTo) {
+        this.dueTo = dueTo;
+    }
+}
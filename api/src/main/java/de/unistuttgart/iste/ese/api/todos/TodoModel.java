@@ -6,10 +6,14 @@ import org.apache.commons.logging.LogFactory;
 import org.jpmml.evaluator.Evaluator;
 import org.jpmml.evaluator.LoadingModelEvaluatorBuilder;
 import org.jpmml.evaluator.OutputField;
-import org.jpmml.evaluator.TargetField;
 import org.xml.sax.SAXException;
 
 import javax.xml.parsers.ParserConfigurationException;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -20,52 +24,141 @@ import java.util.Map;
  */
 public class TodoModel {
     private static final Log LOG = LogFactory.getLog(TodoModel.class);
-    private Evaluator evaluator;
+
+    /**
+     * The category returned when no model is loaded.
+     */
+    public static final String UNKNOWN_CATEGORY = "unknown";
+
+    /**
+     * Titles used to check that the compiled model agrees with the JPMML evaluator.
+     */
+    static final List<String> PARITY_CORPUS = List.of(
+        "", "Team meeting", "Annual budget review", "Birthday party!", "Book club session",
+        "Prepare sales presentation for client", "Car maintenance", "Grocery shopping", "Weekend getaway",
+        "Project deadline, product launch", "Dentist appointment", "Gym", "Network strategy planning",
+        "Family dinner", "House cleaning and gardening", "Marketing performance report",
+        "planning the planning meeting", "  MEETING\twith\nthe   TEAM  ", "unrelated words only");
+
+    /**
+     * An immutable snapshot of a loaded model, swapped as a whole so concurrent
+     * predictions never observe a partially loaded or unloaded model.
+     */
+    private record LoadedModel(Evaluator evaluator, CompiledTodoModel compiledModel, String[] targetLabels) {
+    }
+
+    private final String pathname;
+    private volatile LoadedModel loadedModel;
 
     /**
      * Constructs a TodoModel with the specified PMML model file path.
+     * The path is resolved on the file system first and on the classpath otherwise.
      *
      * @param pathname The path to the PMML model file.
      */
     public TodoModel(String pathname) {
+        this.pathname = pathname;
         loadModel();
     }
 
     /**
      * Loads the PMML model from the specified file path and initializes the model
      * evaluator.
-     * If the loading process encounters any exceptions, the evaluator is set to
-     * null.
+     * The model is additionally compiled into a specialized scorer, which is used for
+     * predictions if it agrees with the evaluator on a corpus of sample titles.
+     * If the loading process encounters any exceptions, the model stays unloaded.
      */
     public void loadModel() {
+        byte[] pmml;
+        Evaluator evaluator;
+        String[] targetLabels;
         // Building a model evaluator from a PMML file
-        try {
-            this.evaluator = new LoadingModelEvaluatorBuilder()
-                .load(getClass().getClassLoader().getResourceAsStream("model.pmml"))
+        try (InputStream inputStream = openModel()) {
+            pmml = inputStream.readAllBytes();
+            evaluator = new LoadingModelEvaluatorBuilder()
+                .load(new ByteArrayInputStream(pmml))
                 .build();
-        } catch (ParserConfigurationException | SAXException | JAXBException e) {
+            targetLabels = evaluator.getTargetFields().get(0).getName().replaceAll("[\\['\\]]", "").split(" ");
+        } catch (IOException | ParserConfigurationException | SAXException | JAXBException e) {
             LOG.error("Could not load AI model:", e);
-            this.evaluator = null;
+            this.loadedModel = null;
+            return;
+        }
+
+        this.loadedModel = new LoadedModel(evaluator, compileModel(pmml, evaluator, targetLabels), targetLabels);
+    }
+
+    /**
+     * Opens the PMML model file, preferring the file system over the classpath.
+     *
+     * @return A stream of the PMML document.
+     * @throws IOException If the model cannot be found or opened.
+     */
+    private InputStream openModel() throws IOException {
+        Path path = Path.of(pathname);
+        if (Files.isRegularFile(path)) {
+            return Files.newInputStream(path);
+        }
+        InputStream inputStream = getClass().getClassLoader().getResourceAsStream(pathname);
+        if (inputStream == null) {
+            throw new IOException(pathname + " not found on the file system or the classpath");
+        }
+        return inputStream;
+    }
+
+    /**
+     * Compiles the PMML model and verifies it against the evaluator.
+     *
+     * @param pmml The PMML document.
+     * @param evaluator The evaluator of the same document.
+     * @param targetLabels The labels of the target categories.
+     * @return The compiled model, or null if the model cannot be compiled or disagrees with the evaluator.
+     */
+    private CompiledTodoModel compileModel(byte[] pmml, Evaluator evaluator, String[] targetLabels) {
+        CompiledTodoModel compiled;
+        try {
+            compiled = CompiledTodoModel.compile(pmml);
+        } catch (IllegalArgumentException e) {
+            LOG.info("Using the JPMML evaluator, the model cannot be compiled: " + e.getMessage());
+            return null;
         }
+        for (String title : PARITY_CORPUS) {
+            String expected = evaluate(evaluator, targetLabels, title);
+            String actual = compiled.predictClass(title);
+            if (actual != null && !expected.equals(actual)) {
+                LOG.warn("Using the JPMML evaluator, the compiled model predicts '" + actual
+                    + "' instead of '" + expected + "' for '" + title + "'");
+                return null;
+            }
+        }
+        return compiled;
     }
 
     /**
      * Parses the model's output to retrieve the predicted class/category.
      *
+     * @param evaluator The evaluator that produced the results.
+     * @param targetLabels The labels of the target categories.
      * @param results The results obtained from evaluating the model on input data.
      * @return The predicted class/category based on the model's output.
      */
-    private String parseModelOutput(Map<String, ?> results) {
-        // Primary result (y) field(s)
-        List<TargetField> targetFields = this.evaluator.getTargetFields();
+    private static String parseModelOutput(Evaluator evaluator, String[] targetLabels, Map<String, ?> results) {
         // Secondary result (eg. probability(y), decision(y)) fields
-        List<OutputField> outputFields = this.evaluator.getOutputFields();
+        List<OutputField> outputFields = evaluator.getOutputFields();
 
         int predictedLabelIndex = Integer.parseInt(results.get(outputFields.get(2).getName()).toString());
-        String[] targetLabels = targetFields.get(0).getName().replaceAll("[\\['\\]]", "").split(" ");
         return targetLabels[predictedLabelIndex];
     }
 
+    /**
+     * Checks whether a model is loaded.
+     *
+     * @return true if predictions come from a model, false if they fall back to "unknown".
+     */
+    public boolean isLoaded() {
+        return loadedModel != null;
+    }
+
     /**
      * Predicts the class/category of a given input text.
      *
@@ -73,25 +166,58 @@ public class TodoModel {
      * @return The predicted class/category for the input text.
      */
     public String predictClass(String inputString) {
-        if (evaluator == null) {
+        LoadedModel model = loadedModel;
+        if (model == null) {
             LOG.warn("Cannot predict class without a loaded model");
-            return "unknown";
+            return UNKNOWN_CATEGORY;
+        }
+        if (model.compiledModel() != null) {
+            String predictedClass = model.compiledModel().predictClass(inputString);
+            if (predictedClass != null) {
+                return predictedClass;
+            }
+        }
+        return evaluate(model.evaluator(), model.targetLabels(), inputString);
+    }
+
+    /**
+     * Predicts the class/category of a given input text with the JPMML evaluator,
+     * even if a compiled model is used for predictions.
+     *
+     * @param inputString The input text to be classified.
+     * @return The predicted class/category for the input text.
+     */
+    String evaluate(String inputString) {
+        LoadedModel model = loadedModel;
+        if (model == null) {
+            return UNKNOWN_CATEGORY;
         }
+        return evaluate(model.evaluator(), model.targetLabels(), inputString);
+    }
 
+    /**
+     * Predicts the class/category of a given input text with the JPMML evaluator.
+     *
+     * @param evaluator The evaluator to use.
+     * @param targetLabels The labels of the target categories.
+     * @param inputString The input text to be classified.
+     * @return The predicted class/category for the input text.
+     */
+    private static String evaluate(Evaluator evaluator, String[] targetLabels, String inputString) {
         // Prepare the input data
         Map<String, Object> input = new HashMap<>();
         input.put("text", inputString);
 
         // Predict class and parse results
-        Map<String, ?> results = this.evaluator.evaluate(input);
+        Map<String, ?> results = evaluator.evaluate(input);
 
-        return parseModelOutput(results);
+        return parseModelOutput(evaluator, targetLabels, results);
     }
 
     /**
      * Unloads the loaded PMML model, releasing resources.
      */
     public void unloadModel() {
-        this.evaluator = null;
+        this.loadedModel = null;
     }
 }
@@ -1,11 +1,133 @@
 package de.unistuttgart.iste.ese.api.todos;
 
-import de.unistuttgart.iste.ese.api.assignees.Assignee;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import java.util.Collection;
+import java.util.Date;
 import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
 
 @Repository
-public interface TodoRepository extends JpaRepository<Todo, Long> {
-    List<Todo> findAllByAssigneeList(Assignee assignee);
+public interface TodoRepository extends JpaRepository<Todo, Long>, JpaSpecificationExecutor<Todo> {
+
+    /**
+     * Loads all Todos matching the specification together with their assignees in a single statement.
+     */
+    @Override
+    @EntityGraph(attributePaths = "assigneeList")
+    List<Todo> findAll(Specification<Todo> specification, Sort sort);
+
+    /**
+     * Loads a Todo together with its assignees in a single statement.
+     */
+    @Override
+    @EntityGraph(attributePaths = "assigneeList")
+    Optional<Todo> findById(Long id);
+
+    /**
+     * Loads the Todos with the given ids together with their assignees in a single statement.
+     *
+     * @param ids The ids of the Todos to load.
+     * @return The Todos ordered by id.
+     */
+    @Query("select t from Todo t left join fetch t.assigneeList where t.id in :ids order by t.id")
+    List<Todo> findAllWithAssigneesByIdIn(@Param("ids") Collection<Long> ids);
+
+    /**
+     * Loads a page of the Todos changed after a position in the change order, without their assignees,
+     * with a range scan on the change number and id.
+     *
+     * @param changeSeq The change number of the position.
+     * @param id The id of the position.
+     * @param upTo The inclusive upper bound of the change number.
+     * @param limit The maximum number of Todos.
+     * @return The changed Todos ordered by change number and id.
+     */
+    @Query("select t from Todo t where (t.changeSeq > :changeSeq or (t.changeSeq = :changeSeq and t.id > :id)) "
+        + "and t.changeSeq <= :upTo order by t.changeSeq, t.id")
+    List<Todo> findChangedAfter(@Param("changeSeq") long changeSeq, @Param("id") long id, @Param("upTo") long upTo,
+                                Limit limit);
+
+    /**
+     * Streams all Todos with their assignees ordered by id through a forward-only, read-only cursor.
+     * Must be consumed inside a transaction and closed afterwards.
+     *
+     * @return A stream over all Todos.
+     */
+    @Query("select t from Todo t left join fetch t.assigneeList order by t.id")
+    @QueryHints({
+        @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"),
+        @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    Stream<Todo> streamAllOrderedById();
+
+    /**
+     * Sets the status of the Todos with the given ids in a single statement.
+     * Todos that already have the status are left untouched, so their finished date is kept.
+     *
+     * @param ids The ids of the Todos to update.
+     * @param finished The new status.
+     * @param finishedDate The finished date to set, null when unfinishing.
+     * @param changeSeq The change number of the transaction.
+     * @return The number of Todos whose status changed.
+     */
+    @Modifying
+    @Query("update Todo t set t.finished = :finished, t.finishedDate = :finishedDate, t.version = t.version + 1, "
+        + "t.changeSeq = :changeSeq where t.id in :ids and t.finished <> :finished")
+    int updateFinishedByIdIn(@Param("ids") Collection<Long> ids, @Param("finished") boolean finished,
+                             @Param("finishedDate") Date finishedDate, @Param("changeSeq") long changeSeq);
+
+    /**
+     * Increments the version of all Todos of an assignee in a single statement, before their assignees
+     * are changed with the statements on the join table below. Concurrent writes of these Todos then fail
+     * the version check instead of restoring the old assignees, and the delta sync reports them as changed.
+     *
+     * @param assigneeId The id of the assignee.
+     * @param changeSeq The change number of the transaction.
+     * @return The number of Todos of the assignee.
+     */
+    @Modifying
+    @Query(value = "update todos set version = version + 1, change_seq = :changeSeq "
+        + "where id in (select todo_id from todo_assignee where assignee_id = :assigneeId)", nativeQuery = true)
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "todos"))
+    int incrementVersionByAssigneeId(@Param("assigneeId") Long assigneeId, @Param("changeSeq") long changeSeq);
+
+    /**
+     * Removes an assignee from all Todos in a single statement on the join table.
+     * Only the cached assignee lists of Todos are evicted from the second-level cache.
+     *
+     * @param assigneeId The id of the assignee.
+     * @return The number of Todos the assignee was removed from.
+     */
+    @Modifying
+    @Query(value = "delete from todo_assignee where assignee_id = :assigneeId", nativeQuery = true)
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "todo_assignee"))
+    int removeAssigneeFromAllTodos(@Param("assigneeId") Long assigneeId);
+
+    /**
+     * Moves all Todos of one assignee to another in a single statement on the join table.
+     * Todos that already have the new assignee are skipped; remove the old assignee from them afterwards
+     * with removeAssigneeFromAllTodos.
+     *
+     * @param fromId The id of the current assignee.
+     * @param toId The id of the new assignee.
+     * @return The number of Todos that were moved.
+     */
+    @Modifying
+    @Query(value = "update todo_assignee set assignee_id = :toId where assignee_id = :fromId "
+        + "and todo_id not in (select todo_id from todo_assignee where assignee_id = :toId)", nativeQuery = true)
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "todo_assignee"))
+    int reassignTodos(@Param("fromId") Long fromId, @Param("toId") Long toId);
 }
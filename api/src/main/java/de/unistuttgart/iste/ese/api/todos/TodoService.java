@@ -1,24 +1,75 @@
 package de.unistuttgart.iste.ese.api.todos;
 
+import de.unistuttgart.iste.ese.api.MergePatch;
+import de.unistuttgart.iste.ese.api.OptimisticRetry;
 import de.unistuttgart.iste.ese.api.assignees.Assignee;
 import de.unistuttgart.iste.ese.api.assignees.AssigneeRepository;
+import de.unistuttgart.iste.ese.api.cache.ChangeVersion;
+import de.unistuttgart.iste.ese.api.cache.EntityTags;
+import de.unistuttgart.iste.ese.api.cache.Tagged;
+import de.unistuttgart.iste.ese.api.changes.ChangeFeed;
+import de.unistuttgart.iste.ese.api.changes.ChangeType;
+import de.unistuttgart.iste.ese.api.jfr.CsvExportEvent;
+import de.unistuttgart.iste.ese.api.metrics.ServiceMetrics;
+import de.unistuttgart.iste.ese.api.sync.ChangePage;
+import de.unistuttgart.iste.ese.api.sync.ChangePosition;
+import de.unistuttgart.iste.ese.api.sync.ChangeSequence;
+import de.unistuttgart.iste.ese.api.sync.Tombstone;
+import de.unistuttgart.iste.ese.api.sync.TombstoneRepository;
+import de.unistuttgart.iste.ese.api.todos.dtos.BatchCreateResultDTO;
+import de.unistuttgart.iste.ese.api.todos.dtos.BatchErrorDTO;
+import de.unistuttgart.iste.ese.api.todos.dtos.BulkFinishDTO;
+import de.unistuttgart.iste.ese.api.todos.dtos.BulkResultDTO;
 import de.unistuttgart.iste.ese.api.todos.dtos.GetTodoDTO;
+import de.unistuttgart.iste.ese.api.todos.dtos.NormalizedTodoDTO;
+import de.unistuttgart.iste.ese.api.todos.dtos.NormalizedTodoPageDTO;
 import de.unistuttgart.iste.ese.api.todos.dtos.PostTodoDTO;
 import de.unistuttgart.iste.ese.api.todos.dtos.TodoDTO;
+import de.unistuttgart.iste.ese.api.todos.dtos.TodoPageDTO;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SequenceWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import io.micrometer.core.instrument.Timer;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.criteria.CriteriaDelete;
+import jakarta.validation.ConstraintViolation;
 import jakarta.validation.Valid;
+import jakarta.validation.Validator;
 import org.apache.commons.csv.CSVFormat;
 import org.apache.commons.csv.CSVPrinter;
+import org.hibernate.Session;
+import org.hibernate.query.criteria.HibernateCriteriaBuilder;
+import org.hibernate.query.criteria.JpaCriteriaInsertSelect;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
 import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 import org.springframework.web.server.ResponseStatusException;
 import java.io.IOException;
+import java.io.OutputStream;
 import java.io.Writer;
+import java.nio.charset.StandardCharsets;
 import java.text.SimpleDateFormat;
 import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Collection;
 import java.util.Date;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 /**
  * Service for handling business logic related to Todos.
@@ -33,25 +84,180 @@ public class TodoService {
     @Autowired
     private AssigneeRepository assigneeRepository;
 
-    private final TodoModel todoModel = new TodoModel("model.pmml");
+    @Autowired
+    private Validator validator;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Autowired
+    private ModelRegistry modelRegistry;
+
+    @Autowired
+    private CategorizationPipeline categorizationPipeline;
+
+    @Autowired
+    private ServiceMetrics serviceMetrics;
+
+    @Autowired
+    private ChangeVersion changeVersion;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private OptimisticRetry optimisticRetry;
+
+    @Autowired
+    private ChangeFeed changeFeed;
+
+    @Autowired
+    private TombstoneRepository tombstoneRepository;
+
+    @Autowired
+    private ChangeSequence changeSequence;
+
+    static final String REPOSITORY_TIMER = "todos.repository";
+    static final String ASSIGNEE_RESOLUTION_TIMER = "todos.assignees.resolution";
+    static final String CLASSIFICATION_TIMER = "todos.classification";
+    static final String EXPORT_TIMER = "todos.export";
+    static final String EXPORT_ROWS_COUNTER = "todos.export.rows";
+    static final String EXPORT_BYTES_COUNTER = "todos.export.bytes";
+
+    private static final int MAX_PAGE_SIZE = 1000;
+
+    private static final int MAX_BATCH_SIZE = 10000;
+
+    private static final int STREAM_PAGE_SIZE = 500;
+
+    /**
+     * The fields of a Todo that can be changed with a merge patch.
+     */
+    public static final Set<String> PATCHABLE_FIELDS = Set.of("title", "description", "finished", "dueDate", "assigneeIdList");
+
+    private record TodoRows(List<Todo> todos, String next) {
+    }
+
+    private static final CSVFormat CSV_FORMAT = CSVFormat.DEFAULT.builder()
+        .setHeader("id", "title", "description", "finished", "assignees", "createdDate", "dueDate", "finishedDate", "category")
+        .build();
 
     /**
      * Creates a new Todo based on the provided TodoDTO.
      * Validates assignee IDs and determines the category of the Todo.
+     * In asynchronous categorization mode the Todo is stored with a pending category,
+     * which the CategorizationPipeline replaces shortly after.
      *
      * @param todoDTO The data for the new Todo submitted via the request body.
      * @return A DTO representing the created Todo.
      */
     public PostTodoDTO createTodo(@Valid TodoDTO todoDTO) {
-        List<Assignee> assigneeList = convertDtoToAssigneeList(todoDTO.getAssigneeIdList());
-        Date dueDate = todoDTO.getDueDate() != null ? new Date(todoDTO.getDueDate()) : null;
-        String category = todoModel.predictClass(todoDTO.getTitle());
+        List<Assignee> assigneeList = resolveAssignees(todoDTO.assigneeIdList(), "create");
+        Date dueDate = toDate(todoDTO.dueDate());
+        boolean async = categorizationPipeline.isEnabled();
+        String category = async ? CategorizationPipeline.PENDING_CATEGORY : predictCategory(todoDTO.title(), "create");
 
-        Todo todo = new Todo(todoDTO.getTitle(), todoDTO.getDescription(), todoDTO.isFinished(), assigneeList, new Date(), dueDate, null, category);
-        todoRepository.save(todo);
+        Todo todo = new Todo(todoDTO.title(), todoDTO.description(), todoDTO.finished(), assigneeList, new Date(), dueDate, null, category);
+        saveInTransaction(todo);
+        changeVersion.bump();
+
+        // a full queue pushes back: the todo is classified inline instead
+        if (async && !categorizationPipeline.submit(todo.getId(), todo.getTitle())) {
+            category = predictCategory(todoDTO.title(), "create");
+            todo.setCategory(category);
+            saveInTransaction(todo);
+            changeVersion.bump();
+        }
+        changeFeed.publish(ChangeType.TODO_CREATED, mapToGetTodoDTO(todo));
 
         return new PostTodoDTO(todo.getId(), todo.getTitle(), todo.getDescription(), todo.isFinished(),
-            assigneeList, todo.getCreatedDate().getTime(), dueDate != null ? dueDate.getTime() : null, category);
+            assigneeList, todo.getCreatedDate().getTime(), todoDTO.dueDate(), category);
+    }
+
+    /**
+     * Saves a created Todo in its own transaction with the change number of that transaction.
+     *
+     * @param todo The Todo to save.
+     */
+    private void saveInTransaction(Todo todo) {
+        transactionTemplate.executeWithoutResult(status -> {
+            todo.setChangeSeq(changeSequence.next());
+            serviceMetrics.time(REPOSITORY_TIMER, () -> todoRepository.save(todo), "operation", "create", "method", "save");
+        });
+    }
+
+    /**
+     * Creates many Todos at once.
+     * All referenced assignees are resolved with a single query and the Todos are inserted
+     * in JDBC batches. Invalid items are reported by their index and do not fail the other items.
+     *
+     * @param todoDTOs The data for the new Todos.
+     * @return The created Todos, the per-item errors and the achieved throughput.
+     * @throws ResponseStatusException If the batch is empty or too large.
+     */
+    @Transactional
+    public BatchCreateResultDTO createTodos(List<TodoDTO> todoDTOs) {
+        if (todoDTOs == null || todoDTOs.isEmpty() || todoDTOs.size() > MAX_BATCH_SIZE) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Batch must contain between 1 and " + MAX_BATCH_SIZE + " todos");
+        }
+        long start = System.nanoTime();
+
+        Set<Long> assigneeIds = new HashSet<>();
+        for (TodoDTO todoDTO : todoDTOs) {
+            if (todoDTO != null && todoDTO.assigneeIdList() != null) {
+                assigneeIds.addAll(todoDTO.assigneeIdList());
+            }
+        }
+        Map<Long, Assignee> assignees = serviceMetrics.time(ASSIGNEE_RESOLUTION_TIMER,
+            () -> findAssigneesById(assigneeIds), "operation", "batch");
+
+        List<BatchErrorDTO> errors = new ArrayList<>();
+        List<Todo> todos = new ArrayList<>(todoDTOs.size());
+        Date createdDate = new Date();
+        for (int i = 0; i < todoDTOs.size(); i++) {
+            TodoDTO todoDTO = todoDTOs.get(i);
+            String error = validateBatchItem(todoDTO, assignees);
+            if (error != null) {
+                errors.add(new BatchErrorDTO(i, error));
+                continue;
+            }
+            List<Assignee> assigneeList = new ArrayList<>();
+            if (todoDTO.assigneeIdList() != null) {
+                for (Long assigneeId : todoDTO.assigneeIdList()) {
+                    assigneeList.add(assignees.get(assigneeId));
+                }
+            }
+            Date dueDate = toDate(todoDTO.dueDate());
+            String category = predictCategory(todoDTO.title(), "batch");
+            todos.add(new Todo(todoDTO.title(), todoDTO.description(), todoDTO.finished(), assigneeList,
+                createdDate, dueDate, null, category));
+        }
+
+        long changeSeq = changeSequence.next();
+        for (Todo todo : todos) {
+            todo.setChangeSeq(changeSeq);
+        }
+        serviceMetrics.time(REPOSITORY_TIMER, () -> {
+            todoRepository.saveAll(todos);
+            todoRepository.flush();
+        }, "operation", "batch", "method", "saveAll");
+        changeVersion.bump();
+        if (!todos.isEmpty()) {
+            changeFeed.publishResync();
+        }
+
+        List<PostTodoDTO> created = todos.stream()
+            .map(todo -> new PostTodoDTO(todo.getId(), todo.getTitle(), todo.getDescription(), todo.isFinished(),
+                todo.getAssigneeList(), todo.getCreatedDate().getTime(),
+                epochMillis(todo.getDueDate()), todo.getCategory()))
+            .collect(Collectors.toList());
+
+        long durationNanos = Math.max(System.nanoTime() - start, 1);
+        double todosPerSecond = created.size() * 1_000_000_000.0 / durationNanos;
+        return new BatchCreateResultDTO(created, errors, durationNanos / 1_000_000, todosPerSecond);
     }
 
     /**
@@ -60,7 +266,154 @@ public class TodoService {
      * @return A list of Todos as GetTodoDTO objects.
      */
     public List<GetTodoDTO> getAllTodos() {
-        return todoRepository.findAll().stream().map(this::mapToGetTodoDTO).collect(Collectors.toList());
+        return serviceMetrics.time(REPOSITORY_TIMER,
+                () -> todoRepository.findAll(TodoSpecifications.matching(null, null), Sort.by("id")),
+                "operation", "list", "method", "findAll").stream()
+            .map(TodoService::mapToGetTodoDTO).collect(Collectors.toList());
+    }
+
+    /**
+     * Retrieves a page of the Todos changed after a position in the change order, for the delta sync.
+     * Like getTodoPage, the page is read with one extra row to detect a next page and the assignees
+     * of the page are loaded with one additional statement.
+     *
+     * @param after The position of the last Todo of the previous page.
+     * @param upTo The inclusive upper bound of the change number.
+     * @param limit The maximum number of Todos to return.
+     * @return The changed Todos as GetTodoDTO objects and the position of the last one if there are more.
+     */
+    public ChangePage<GetTodoDTO> getTodosChangedAfter(ChangePosition after, long upTo, int limit) {
+        List<Todo> rows = serviceMetrics.time(REPOSITORY_TIMER,
+            () -> todoRepository.findChangedAfter(after.changeSeq(), after.id(), upTo, Limit.of(limit + 1)),
+            "operation", "sync", "method", "findChangedAfter");
+        List<Todo> page = rows.subList(0, Math.min(limit, rows.size()));
+        List<Long> ids = page.stream().map(Todo::getId).collect(Collectors.toList());
+        List<Todo> todos = ids.isEmpty() ? new ArrayList<>() : serviceMetrics.time(REPOSITORY_TIMER,
+            () -> todoRepository.findAllWithAssigneesByIdIn(ids), "operation", "sync", "method", "findAllWithAssigneesByIdIn");
+        Todo last = page.isEmpty() ? null : page.get(page.size() - 1);
+        ChangePosition next = rows.size() > limit ? new ChangePosition(last.getChangeSeq(), last.getId()) : null;
+        return new ChangePage<>(todos.stream().map(TodoService::mapToGetTodoDTO).collect(Collectors.toList()), next);
+    }
+
+    /**
+     * Retrieves one page of Todos matching the filter, ordered by id.
+     * Pages are addressed with an opaque cursor encoding the last id of the previous page,
+     * so every page is a bounded index range scan regardless of the table size.
+     *
+     * @param filter The filter criteria.
+     * @param cursor The cursor returned with the previous page, or null for the first page.
+     * @param limit The maximum number of Todos to return, or null for the largest page size.
+     * @return The page of Todos together with the cursor of the next page (null on the last page).
+     * @throws ResponseStatusException If the cursor or the limit is invalid.
+     */
+    public TodoPageDTO getTodoPage(TodoFilter filter, String cursor, Integer limit) {
+        TodoRows rows = findTodoRows(filter, cursor, limit);
+        return new TodoPageDTO(rows.todos().stream().map(TodoService::mapToGetTodoDTO).collect(Collectors.toList()), rows.next());
+    }
+
+    /**
+     * Retrieves one page of Todos like getTodoPage in a normalized shape: the Todos carry only the ids of
+     * their assignees and every assignee of the page is included once in a separate list.
+     * Assignees are deduplicated by id in a primitive long-keyed map, so no objects are allocated per
+     * Todo and assignee.
+     *
+     * @param filter The filter criteria.
+     * @param cursor The cursor returned with the previous page, or null for the first page.
+     * @param limit The maximum number of Todos to return, or null for the largest page size.
+     * @return The page of Todos, their assignees and the cursor of the next page (null on the last page).
+     * @throws ResponseStatusException If the cursor or the limit is invalid.
+     */
+    public NormalizedTodoPageDTO getNormalizedTodoPage(TodoFilter filter, String cursor, Integer limit) {
+        TodoRows rows = findTodoRows(filter, cursor, limit);
+        LongHashSet seen = new LongHashSet(64);
+        List<Assignee> assignees = new ArrayList<>();
+        List<NormalizedTodoDTO> todos = new ArrayList<>(rows.todos().size());
+        for (Todo todo : rows.todos()) {
+            List<Assignee> assigneeList = todo.getAssigneeList();
+            long[] assigneeIds = new long[assigneeList.size()];
+            for (int i = 0; i < assigneeIds.length; i++) {
+                Assignee assignee = assigneeList.get(i);
+                assigneeIds[i] = assignee.getId();
+                if (seen.add(assigneeIds[i])) {
+                    assignees.add(assignee);
+                }
+            }
+            todos.add(new NormalizedTodoDTO(todo.getId(), todo.getTitle(), todo.getDescription(), todo.isFinished(),
+                assigneeIds, todo.getCreatedDate().getTime(),
+                epochMillis(todo.getDueDate()),
+                epochMillis(todo.getFinishedDate()),
+                todo.getCategory()));
+        }
+        return new NormalizedTodoPageDTO(todos, assignees, rows.next());
+    }
+
+    /**
+     * Loads the Todos of a page together with their assignees, ordered by id.
+     * Pages are addressed with an opaque cursor encoding the last id of the previous page.
+     *
+     * @param filter The filter criteria.
+     * @param cursor The cursor returned with the previous page, or null for the first page.
+     * @param limit The maximum number of Todos to return, or null for the largest page size.
+     * @return The Todos of the page and the cursor of the next page (null on the last page).
+     * @throws ResponseStatusException If the cursor or the limit is invalid.
+     */
+    private TodoRows findTodoRows(TodoFilter filter, String cursor, Integer limit) {
+        if (limit != null && (limit < 1 || limit > MAX_PAGE_SIZE)) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Limit must be between 1 and " + MAX_PAGE_SIZE);
+        }
+        // clients without a limit get the largest page, so no request reads an unbounded number of rows
+        int pageSize = limit != null ? limit : MAX_PAGE_SIZE;
+        Specification<Todo> specification = TodoSpecifications.matching(filter, decodeCursor(cursor));
+        Sort sort = Sort.by("id");
+
+        // fetch one extra row to find out whether there is a next page without a count query
+        List<Todo> rows = serviceMetrics.time(REPOSITORY_TIMER,
+            () -> todoRepository.findBy(specification, query -> query.sortBy(sort).limit(pageSize + 1).all()),
+            "operation", "page", "method", "findBy");
+        boolean hasNext = rows.size() > pageSize;
+        List<Long> ids = rows.stream().limit(pageSize).map(Todo::getId).collect(Collectors.toList());
+        // the assignees of the whole page are loaded with one additional statement
+        List<Todo> todos = ids.isEmpty() ? new ArrayList<>() : serviceMetrics.time(REPOSITORY_TIMER,
+            () -> todoRepository.findAllWithAssigneesByIdIn(ids), "operation", "page", "method", "findAllWithAssigneesByIdIn");
+        String next = hasNext ? encodeCursor(todos.get(todos.size() - 1).getId()) : null;
+        return new TodoRows(todos, next);
+    }
+
+    /**
+     * Writes the Todos matching the filter as newline-delimited JSON, one compact Todo per line.
+     * The Todos are read page by page with the keyset cursor of getTodoPage and the persistence
+     * context is cleared after each page, so memory use does not depend on the number of Todos.
+     * The stream is flushed after each page but not closed.
+     *
+     * @param filter The filter criteria.
+     * @param outputStream The stream to write to.
+     * @throws IOException If writing fails.
+     */
+    public void streamTodos(TodoFilter filter, OutputStream outputStream) throws IOException {
+        ObjectWriter writer = objectMapper.writer()
+            .without(SerializationFeature.INDENT_OUTPUT)
+            .without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE)
+            .without(JsonGenerator.Feature.AUTO_CLOSE_TARGET)
+            .withRootValueSeparator("\n");
+        boolean empty = true;
+        try (SequenceWriter sequence = writer.writeValues(outputStream)) {
+            String cursor = null;
+            do {
+                TodoPageDTO page = getTodoPage(filter, cursor, STREAM_PAGE_SIZE);
+                for (GetTodoDTO todo : page.todos()) {
+                    sequence.write(todo);
+                    empty = false;
+                }
+                sequence.flush();
+                entityManager.clear();
+                cursor = page.next();
+            } while (cursor != null);
+        }
+        // the separator is only written between records, terminate the last line as well
+        if (!empty) {
+            outputStream.write('\n');
+        }
+        outputStream.flush();
     }
 
     /**
@@ -68,55 +421,256 @@ public class TodoService {
      * Throws an exception if the Todo is not found.
      *
      * @param id The ID of the Todo to retrieve.
-     * @return The requested Todo as a GetTodoDTO.
+     * @return The requested Todo as a GetTodoDTO, tagged with its version.
      * @throws ResponseStatusException If the Todo is not found.
      */
-    public GetTodoDTO getTodoById(Long id) {
-        Todo todo = todoRepository.findById(id)
+    public Tagged<GetTodoDTO> getTodoById(Long id) {
+        Todo todo = serviceMetrics.time(REPOSITORY_TIMER, () -> todoRepository.findById(id), "operation", "get", "method", "findById")
             .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Todo not found"));
-        return mapToGetTodoDTO(todo);
+        return new Tagged<>(mapToGetTodoDTO(todo), tagOf(todo));
     }
 
     /**
      * Updates an existing Todo identified by its ID.
      * Validates assignee IDs, updates the attributes, and saves the updated Todo.
+     * A concurrent write is detected by the version check; the update is then retried on the new state,
+     * or rejected with 412 if the request was conditional.
      *
      * @param id The ID of the Todo to update.
      * @param todoDTO The updated Todo data.
-     * @return The updated Todo as a GetTodoDTO.
-     * @throws ResponseStatusException If the Todo is not found.
+     * @param ifMatch The If-Match header, or null to update unconditionally.
+     * @return The updated Todo as a GetTodoDTO, tagged with its new version.
+     * @throws ResponseStatusException If the Todo is not found, If-Match does not match or the Todo is modified concurrently.
      */
-    public GetTodoDTO updateTodo(Long id, @Valid TodoDTO todoDTO) {
-        Todo todo = todoRepository.findById(id)
-            .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Todo not found"));
+    public Tagged<GetTodoDTO> updateTodo(Long id, @Valid TodoDTO todoDTO, String ifMatch) {
+        Todo updated = optimisticRetry.execute("updateTodo", ifMatch != null, () -> {
+            Todo todo = serviceMetrics.time(REPOSITORY_TIMER, () -> todoRepository.findById(id), "operation", "update", "method", "findById")
+                .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Todo not found"));
+            EntityTags.checkIfMatch(ifMatch, tagOf(todo));
 
-        List<Assignee> assigneeList = convertDtoToAssigneeList(todoDTO.getAssigneeIdList());
-        Date dueDate = todoDTO.getDueDate() != null ? new Date(todoDTO.getDueDate()) : null;
-        String category = todoModel.predictClass(todoDTO.getTitle());
+            List<Assignee> assigneeList = resolveAssignees(todoDTO.assigneeIdList(), "update");
+            Date dueDate = toDate(todoDTO.dueDate());
+            // status flips resend the unchanged title, so only reclassify if it actually changed
+            // or the Todo has no category yet, e.g. because it is still queued for categorization
+            boolean titleUnchanged = todoDTO.title().equals(todo.getTitle())
+                && todo.getCategory() != null && !TodoModel.UNKNOWN_CATEGORY.equals(todo.getCategory())
+                && !CategorizationPipeline.PENDING_CATEGORY.equals(todo.getCategory());
+            String category = titleUnchanged ? todo.getCategory() : predictCategory(todoDTO.title(), "update");
+            long changeSeq = changeSequence.next();
 
-        todo.setTitle(todoDTO.getTitle());
-        todo.setDescription(todoDTO.getDescription());
-        todo.setFinished(todoDTO.isFinished());
-        todo.setAssigneList(assigneeList);
-        todo.setDueDate(dueDate);
-        todo.setCategory(category);
+            todo.setTitle(todoDTO.title());
+            todo.setDescription(todoDTO.description());
+            todo.setFinished(todoDTO.finished());
+            todo.setAssigneList(assigneeList);
+            todo.setDueDate(dueDate);
+            todo.setCategory(category);
+            todo.setChangeSeq(changeSeq);
 
-        todoRepository.save(todo);
-        return mapToGetTodoDTO(todo);
+            serviceMetrics.time(REPOSITORY_TIMER, () -> todoRepository.save(todo), "operation", "update", "method", "save");
+            changeVersion.bump();
+            changeFeed.publish(ChangeType.TODO_UPDATED, mapToGetTodoDTO(todo));
+            return todo;
+        });
+        return new Tagged<>(mapToGetTodoDTO(updated), tagOf(updated));
     }
 
     /**
-     * Deletes a Todo by its unique ID.
+     * Applies a JSON Merge Patch to a Todo.
+     * Only the fields in the patch are changed, and only if their value differs, so the update
+     * statement contains just these columns. The assignees are resolved and the join table is
+     * rewritten only if the patch changes assigneeIdList, the title is reclassified only if it changed.
+     * Concurrent writes are handled like for updateTodo.
+     *
+     * @param id The ID of the Todo to patch.
+     * @param patch The merge patch with title, description, finished, dueDate and/or assigneeIdList.
+     * @param ifMatch The If-Match header, or null to patch unconditionally.
+     * @return The patched Todo as a GetTodoDTO, tagged with its new version.
+     * @throws ResponseStatusException If the Todo or an assignee is not found, the patch is invalid,
+     *                                 If-Match does not match or the Todo is modified concurrently.
+     */
+    public Tagged<GetTodoDTO> patchTodo(Long id, MergePatch patch, String ifMatch) {
+        Todo patched = optimisticRetry.execute("patchTodo", ifMatch != null, () -> {
+            Todo todo = serviceMetrics.time(REPOSITORY_TIMER, () -> todoRepository.findById(id), "operation", "patch", "method", "findById")
+                .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Todo not found"));
+            EntityTags.checkIfMatch(ifMatch, tagOf(todo));
+
+            boolean changed = false;
+            if (patch.has("title")) {
+                String title = patch.text("title", false);
+                Set<ConstraintViolation<Todo>> violations = validator.validateValue(Todo.class, "title", title);
+                if (!violations.isEmpty()) {
+                    throw new ResponseStatusException(HttpStatus.BAD_REQUEST, violations.iterator().next().getMessage());
+                }
+                if (!title.equals(todo.getTitle())) {
+                    todo.setTitle(title);
+                    todo.setCategory(predictCategory(title, "patch"));
+                    changed = true;
+                }
+            }
+            if (patch.has("description")) {
+                String description = patch.text("description", true);
+                if (!Objects.equals(description, todo.getDescription())) {
+                    todo.setDescription(description);
+                    changed = true;
+                }
+            }
+            if (patch.has("finished")) {
+                boolean finished = patch.bool("finished");
+                // setFinished stamps the finished date, keep it if the status does not change
+                if (finished != todo.isFinished()) {
+                    todo.setFinished(finished);
+                    changed = true;
+                }
+            }
+            if (patch.has("dueDate")) {
+                Long dueDate = patch.number("dueDate", true);
+                if (!Objects.equals(dueDate, epochMillis(todo.getDueDate()))) {
+                    todo.setDueDate(toDate(dueDate));
+                    changed = true;
+                }
+            }
+            if (patch.has("assigneeIdList")) {
+                List<Long> assigneeIds = patch.numbers("assigneeIdList");
+                List<Long> currentIds = todo.getAssigneeList().stream().map(Assignee::getId).collect(Collectors.toList());
+                if (!assigneeIds.equals(currentIds)) {
+                    todo.setAssigneList(resolveAssignees(assigneeIds, "patch"));
+                    changed = true;
+                }
+            }
+
+            if (changed) {
+                todo.setChangeSeq(changeSequence.next());
+                serviceMetrics.time(REPOSITORY_TIMER, () -> todoRepository.save(todo), "operation", "patch", "method", "save");
+                changeVersion.bump();
+                changeFeed.publish(ChangeType.TODO_UPDATED, mapToGetTodoDTO(todo));
+            }
+            return todo;
+        });
+        return new Tagged<>(mapToGetTodoDTO(patched), tagOf(patched));
+    }
+
+    /**
+     * Deletes a Todo by its unique ID and records a tombstone for the delta sync.
      * Throws an exception if the Todo is not found.
      *
      * @param id The ID of the Todo to delete.
-     * @throws ResponseStatusException If the Todo is not found.
+     * @param ifMatch The If-Match header, or null to delete unconditionally.
+     * @throws ResponseStatusException If the Todo is not found or If-Match does not match.
      */
-    public void deleteTodoById(Long id) {
-        if (!todoRepository.existsById(id)) {
-            throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Todo not found");
+    public void deleteTodoById(Long id, String ifMatch) {
+        optimisticRetry.execute("deleteTodo", ifMatch != null, () -> {
+            Todo todo = serviceMetrics.time(REPOSITORY_TIMER, () -> todoRepository.findById(id), "operation", "delete", "method", "findById")
+                .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Todo not found"));
+            EntityTags.checkIfMatch(ifMatch, tagOf(todo));
+            long changeSeq = changeSequence.next();
+            serviceMetrics.time(REPOSITORY_TIMER, () -> todoRepository.delete(todo), "operation", "delete", "method", "delete");
+            serviceMetrics.time(REPOSITORY_TIMER, () -> tombstoneRepository.save(new Tombstone(Tombstone.TODO, id, new Date(), changeSeq)),
+                "operation", "delete", "method", "saveTombstone");
+            changeVersion.bump();
+            changeFeed.publishDeleted(ChangeType.TODO_DELETED, id);
+            return null;
+        });
+    }
+
+    /**
+     * Returns the tag of the current version of a Todo.
+     * The Todo embeds its assignees, so the versions of the assignees are part of the tag as well.
+     *
+     * @param todo The Todo with its assignees.
+     * @return The unquoted tag.
+     */
+    static String tagOf(Todo todo) {
+        long assignees = 0;
+        for (Assignee assignee : todo.getAssigneeList()) {
+            assignees = 31 * (31 * assignees + assignee.getId()) + assignee.getVersion();
         }
-        todoRepository.deleteById(id);
+        return EntityTags.tag(todo.getVersion()) + "." + Long.toString(assignees & Long.MAX_VALUE, Character.MAX_RADIX);
+    }
+
+    /**
+     * Sets the status of many Todos with a single update statement.
+     * Todos that already have the requested status keep their finished date.
+     *
+     * @param bulkFinishDTO The ids of the Todos and the new status.
+     * @return The number of Todos whose status changed.
+     * @throws ResponseStatusException If no or too many ids are given.
+     */
+    @Transactional
+    public BulkResultDTO setFinished(@Valid BulkFinishDTO bulkFinishDTO) {
+        if (bulkFinishDTO.ids().size() > MAX_BATCH_SIZE) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "At most " + MAX_BATCH_SIZE + " todos can be updated at once");
+        }
+        Date now = new Date();
+        Date finishedDate = bulkFinishDTO.finished() ? now : null;
+        long changeSeq = changeSequence.next();
+        int affected = serviceMetrics.time(REPOSITORY_TIMER,
+            () -> todoRepository.updateFinishedByIdIn(bulkFinishDTO.ids(), bulkFinishDTO.finished(), finishedDate, changeSeq),
+            "operation", "bulkFinish", "method", "updateFinishedByIdIn");
+        if (affected > 0) {
+            changeVersion.bump();
+            changeFeed.publishResync();
+        }
+        return new BulkResultDTO(affected);
+    }
+
+    /**
+     * Deletes all Todos matching the filter with a single bulk delete.
+     * Their tombstones are inserted with a single insert ... select of the same filter before, their rows
+     * in the assignee join table are removed by Hibernate in the same transaction.
+     *
+     * @param filter The filter criteria, at least one must be set.
+     * @return The number of deleted Todos.
+     * @throws ResponseStatusException If no filter criterion is set.
+     */
+    @Transactional
+    public BulkResultDTO deleteTodos(TodoFilter filter) {
+        Session session = entityManager.unwrap(Session.class);
+        HibernateCriteriaBuilder cb = session.getCriteriaBuilder();
+        JpaCriteriaInsertSelect<Tombstone> tombstones;
+        CriteriaDelete<Todo> delete;
+        try {
+            // validates the filter before the change number is drawn
+            delete = TodoSpecifications.deleteMatching(filter, cb);
+            tombstones = TodoSpecifications.tombstonesMatching(filter, cb, new Date(), changeSequence.next());
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage());
+        }
+        serviceMetrics.time(REPOSITORY_TIMER, () -> session.createMutationQuery(tombstones).executeUpdate(),
+            "operation", "bulkDelete", "method", "tombstonesMatching");
+        int affected = serviceMetrics.time(REPOSITORY_TIMER, () -> entityManager.createQuery(delete).executeUpdate(),
+            "operation", "bulkDelete", "method", "deleteMatching");
+        if (affected > 0) {
+            changeVersion.bump();
+            changeFeed.publishResync();
+        }
+        return new BulkResultDTO(affected);
+    }
+
+    /**
+     * Resolves assignee IDs like convertDtoToAssigneeList and records the time it took.
+     *
+     * @param assigneeIdList A list of assignee IDs to convert.
+     * @param operation The service operation, used as metric tag.
+     * @return A list of Assignee entities.
+     * @throws ResponseStatusException If an assignee is not found.
+     */
+    private List<Assignee> resolveAssignees(List<Long> assigneeIdList, String operation) {
+        return serviceMetrics.time(ASSIGNEE_RESOLUTION_TIMER, () -> convertDtoToAssigneeList(assigneeIdList), "operation", operation);
+    }
+
+    /**
+     * Predicts the category of a title and records the latency and whether a model produced it.
+     *
+     * @param title The title to classify.
+     * @param operation The service operation, used as metric tag.
+     * @return The predicted category, or "unknown" if no model is loaded.
+     */
+    private String predictCategory(String title, String operation) {
+        Timer.Sample sample = serviceMetrics.start();
+        String category = modelRegistry.predictClass(title);
+        serviceMetrics.stop(sample, CLASSIFICATION_TIMER, "operation", operation,
+            "outcome", TodoModel.UNKNOWN_CATEGORY.equals(category) ? "unknown" : "predicted");
+        return category;
     }
 
     /**
@@ -124,7 +678,7 @@ public class TodoService {
      * Throws an exception if any assignee ID is invalid.
      *
      * @param assigneeIdList A list of assignee IDs to convert.
-     * @return A list of Assignee entities.
+     * @return A list of Assignee entities in the order of the IDs.
      * @throws ResponseStatusException If an assignee is not found.
      */
     private List<Assignee> convertDtoToAssigneeList(List<Long> assigneeIdList) {
@@ -132,10 +686,94 @@ public class TodoService {
             return new ArrayList<>();
         }
 
-        return assigneeIdList.stream()
-            .map(id -> assigneeRepository.findById(id)
-                .orElseThrow(() -> new ResponseStatusException(HttpStatus.BAD_REQUEST, "Assignee not found")))
-            .collect(Collectors.toList());
+        Map<Long, Assignee> assignees = findAssigneesById(new HashSet<>(assigneeIdList));
+        List<Assignee> assigneeList = new ArrayList<>(assigneeIdList.size());
+        for (Long id : assigneeIdList) {
+            Assignee assignee = assignees.get(id);
+            if (assignee == null) {
+                throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Assignee not found");
+            }
+            assigneeList.add(assignee);
+        }
+        return assigneeList;
+    }
+
+    /**
+     * Loads assignees by their IDs from the second-level cache and queries only the missing ones,
+     * with a single statement.
+     *
+     * @param ids The IDs of the assignees.
+     * @return The existing assignees keyed by ID; unknown IDs are absent.
+     */
+    private Map<Long, Assignee> findAssigneesById(Collection<Long> ids) {
+        Map<Long, Assignee> assignees = new HashMap<>();
+        if (ids.isEmpty()) {
+            return assignees;
+        }
+        // the session is only usable within a transaction (or the request's open session)
+        List<Assignee> found = transactionTemplate.execute(status -> entityManager.unwrap(Session.class)
+            .byMultipleIds(Assignee.class)
+            .multiLoad(new ArrayList<>(ids)));
+        for (Assignee assignee : found) {
+            if (assignee != null) {
+                assignees.put(assignee.getId(), assignee);
+            }
+        }
+        return assignees;
+    }
+
+    /**
+     * Validates a single item of a batch create request.
+     *
+     * @param todoDTO The item to validate.
+     * @param assignees The existing assignees referenced by the batch, keyed by id.
+     * @return An error message, or null if the item is valid.
+     */
+    private String validateBatchItem(TodoDTO todoDTO, Map<Long, Assignee> assignees) {
+        if (todoDTO == null) {
+            return "Todo must not be null";
+        }
+        Set<ConstraintViolation<TodoDTO>> violations = validator.validate(todoDTO);
+        if (!violations.isEmpty()) {
+            return violations.stream().map(ConstraintViolation::getMessage).collect(Collectors.joining(", "));
+        }
+        if (todoDTO.assigneeIdList() != null) {
+            for (Long assigneeId : todoDTO.assigneeIdList()) {
+                if (!assignees.containsKey(assigneeId)) {
+                    return "Assignee not found";
+                }
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Encodes the id of the last Todo of a page as an opaque cursor.
+     *
+     * @param lastId The id of the last Todo of the page.
+     * @return The cursor string.
+     */
+    private String encodeCursor(Long lastId) {
+        return Base64.getUrlEncoder().withoutPadding()
+            .encodeToString(Long.toString(lastId).getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Decodes a cursor created by encodeCursor.
+     *
+     * @param cursor The cursor string, may be null.
+     * @return The id of the last Todo of the previous page, or null if no cursor was given.
+     * @throws ResponseStatusException If the cursor is malformed.
+     */
+    private Long decodeCursor(String cursor) {
+        if (cursor == null || cursor.isEmpty()) {
+            return null;
+        }
+        try {
+            return Long.parseLong(new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8));
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Invalid cursor");
+        }
     }
 
     /**
@@ -144,7 +782,7 @@ public class TodoService {
      * @param todo The Todo entity to map.
      * @return A GetTodoDTO representing the Todo.
      */
-    private GetTodoDTO mapToGetTodoDTO(Todo todo) {
+    static GetTodoDTO mapToGetTodoDTO(Todo todo) {
         return new GetTodoDTO(
             todo.getId(),
             todo.getTitle(),
@@ -152,28 +790,65 @@ public class TodoService {
             todo.isFinished(),
             todo.getAssigneeList(),
             todo.getCreatedDate().getTime(),
-            todo.getDueDate() != null ? todo.getDueDate().getTime() : null,
-            todo.getFinishedDate() != null ? todo.getFinishedDate().getTime() : null,
+            epochMillis(todo.getDueDate()),
+            epochMillis(todo.getFinishedDate()),
             todo.getCategory()
         );
     }
 
+    /**
+     * Converts an optional date of a Todo to epoch milliseconds.
+     *
+     * @param date The date, may be null.
+     * @return The epoch milliseconds, or null if the date is null.
+     */
+    private static Long epochMillis(Date date) {
+        return date != null ? date.getTime() : null;
+    }
+
+    /**
+     * Converts optional epoch milliseconds of a request to a date.
+     *
+     * @param epochMillis The epoch milliseconds, may be null.
+     * @return The date, or null if epochMillis is null.
+     */
+    private static Date toDate(Long epochMillis) {
+        return epochMillis != null ? new Date(epochMillis) : null;
+    }
+
     /**
      * Exports all Todos as a CSV file.
+     * Rows are read through a database cursor and written one at a time, so memory use
+     * does not depend on the number of Todos. The writer is flushed but not closed.
      *
-     * @param writer The PrintWriter to write the CSV data to.
+     * @param writer The Writer to write the CSV data to.
      * @throws IOException If an error occurs during CSV generation.
      */
+    @Transactional(readOnly = true)
     public void exportTodosToCSV(Writer writer) throws IOException {
-        List<Todo> todos = todoRepository.findAll();
         SimpleDateFormat dateFormatter = new SimpleDateFormat("yyyy-MM-dd");
+        CSVPrinter csvPrinter = new CSVPrinter(writer, CSV_FORMAT);
+        Timer.Sample sample = serviceMetrics.start();
+        CsvExportEvent event = new CsvExportEvent();
+        event.begin();
+        long rows = 0;
 
-        try (CSVPrinter csvPrinter = new CSVPrinter(writer,
-            CSVFormat.DEFAULT.withHeader("id", "title", "description", "finished", "assignees", "createdDate", "dueDate", "finishedDate", "category"))) {
-            for (Todo todo : todos) {
+        try (Stream<Todo> todos = todoRepository.streamAllOrderedById()) {
+            Iterator<Todo> iterator = todos.iterator();
+            while (iterator.hasNext()) {
+                Todo todo = iterator.next();
                 csvPrinter.printRecord(mapTodoToCsvRecord(todo, dateFormatter));
+                // keep the persistence context from growing with every exported row
+                entityManager.detach(todo);
+                rows++;
             }
+        } finally {
+            serviceMetrics.stop(sample, EXPORT_TIMER, "operation", "export");
+            serviceMetrics.count(EXPORT_ROWS_COUNTER, rows, "operation", "export");
+            event.rowCount = rows;
+            event.commit();
         }
+        csvPrinter.flush();
     }
 
 
@@ -0,0 +1,123 @@
+package de.unistuttgart.iste.ese.api.todos;
+
+import de.unistuttgart.iste.ese.api.assignees.Assignee;
+import de.unistuttgart.iste.ese.api.sync.Tombstone;
+import jakarta.persistence.Tuple;
+import jakarta.persistence.criteria.CommonAbstractCriteria;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaDelete;
+import jakarta.persistence.criteria.Join;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import jakarta.persistence.criteria.Subquery;
+import org.hibernate.query.criteria.HibernateCriteriaBuilder;
+import org.hibernate.query.criteria.JpaCriteriaInsertSelect;
+import org.hibernate.query.criteria.JpaCriteriaQuery;
+import org.hibernate.query.criteria.JpaRoot;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+
+/**
+ * Builds JPA specifications for filtered and keyset-paginated Todo queries and filtered bulk deletes
+ * together with the tombstones of the deleted Todos.
+ * Only the criteria that are actually set end up in the generated SQL.
+ */
+public final class TodoSpecifications {
+
+    private TodoSpecifications() {
+    }
+
+    /**
+     * Creates a specification matching all Todos after the given id that satisfy the filter.
+     *
+     * @param filter The filter criteria, may be null.
+     * @param afterId The id of the last Todo of the previous page, or null for the first page.
+     * @return The combined specification.
+     */
+    public static Specification<Todo> matching(TodoFilter filter, Long afterId) {
+        return (root, query, cb) -> {
+            List<Predicate> predicates = predicates(filter, root, query, cb);
+            if (afterId != null) {
+                predicates.add(0, cb.greaterThan(root.get("id"), afterId));
+            }
+            return cb.and(predicates.toArray(new Predicate[0]));
+        };
+    }
+
+    /**
+     * Creates a bulk delete of all Todos that satisfy the filter.
+     *
+     * @param filter The filter criteria, at least one must be set.
+     * @param cb The criteria builder.
+     * @return The delete statement.
+     * @throws IllegalArgumentException If no criterion is set, which would delete all Todos.
+     */
+    public static CriteriaDelete<Todo> deleteMatching(TodoFilter filter, CriteriaBuilder cb) {
+        CriteriaDelete<Todo> delete = cb.createCriteriaDelete(Todo.class);
+        Root<Todo> root = delete.from(Todo.class);
+        return delete.where(required(predicates(filter, root, delete, cb)));
+    }
+
+    /**
+     * Creates an insert ... select of tombstones for all Todos that satisfy the filter,
+     * to be executed right before the deleteMatching statement of the same filter.
+     *
+     * @param filter The filter criteria, at least one must be set.
+     * @param cb The Hibernate criteria builder.
+     * @param deletedAt The time of the deletion.
+     * @param changeSeq The change number of the deletion.
+     * @return The insert statement.
+     * @throws IllegalArgumentException If no criterion is set.
+     */
+    public static JpaCriteriaInsertSelect<Tombstone> tombstonesMatching(TodoFilter filter, HibernateCriteriaBuilder cb,
+                                                                        Date deletedAt, long changeSeq) {
+        JpaCriteriaInsertSelect<Tombstone> insert = cb.createCriteriaInsertSelect(Tombstone.class);
+        JpaRoot<Tombstone> tombstone = insert.getTarget();
+        insert.setInsertionTargetPaths(tombstone.get("type"), tombstone.get("entityId"), tombstone.get("deletedAt"),
+            tombstone.get("changeSeq"));
+        JpaCriteriaQuery<Tuple> select = cb.createTupleQuery();
+        Root<Todo> root = select.from(Todo.class);
+        select.multiselect(cb.literal(Tombstone.TODO), root.get("id"), cb.literal(deletedAt), cb.literal(changeSeq))
+            .where(required(predicates(filter, root, select, cb)));
+        return insert.select(select);
+    }
+
+    private static Predicate[] required(List<Predicate> predicates) {
+        if (predicates.isEmpty()) {
+            throw new IllegalArgumentException("At least one filter criterion is required");
+        }
+        return predicates.toArray(new Predicate[0]);
+    }
+
+    private static List<Predicate> predicates(TodoFilter filter, Root<Todo> root, CommonAbstractCriteria query,
+                                              CriteriaBuilder cb) {
+        List<Predicate> predicates = new ArrayList<>();
+        if (filter == null) {
+            return predicates;
+        }
+        if (filter.getFinished() != null) {
+            predicates.add(cb.equal(root.get("finished"), filter.getFinished()));
+        }
+        if (filter.getCategory() != null) {
+            predicates.add(cb.equal(root.get("category"), filter.getCategory()));
+        }
+        if (filter.getDueFrom() != null) {
+            predicates.add(cb.greaterThanOrEqualTo(root.get("dueDate"), new Date(filter.getDueFrom())));
+        }
+        if (filter.getDueTo() != null) {
+            predicates.add(cb.lessThan(root.get("dueDate"), new Date(filter.getDueTo())));
+        }
+        if (filter.getAssigneeId() != null) {
+            // an exists subquery keeps the outer query free of duplicate rows
+            Subquery<Long> assigned = query.subquery(Long.class);
+            Root<Todo> subRoot = assigned.correlate(root);
+            Join<Todo, Assignee> assignee = subRoot.join("assigneeList");
+            assigned.select(assignee.get("id")).where(cb.equal(assignee.get("id"), filter.getAssigneeId()));
+            predicates.add(cb.exists(assigned));
+        }
+        return predicates;
+    }
+}
@@ -0,0 +1,7 @@
+package de.unistuttgart.iste.ese.api.todos.dtos;
+
+import java.util.List;
+
+public record BatchCreateResultDTO(List<PostTodoDTO> created, List<BatchErrorDTO> errors,
+                                   long durationMillis, double todosPerSecond) {
+}
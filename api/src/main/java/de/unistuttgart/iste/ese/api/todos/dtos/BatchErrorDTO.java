@@ -0,0 +1,4 @@
+package de.unistuttgart.iste.ese.api.todos.dtos;
+
+public record BatchErrorDTO(int index, String message) {
+}
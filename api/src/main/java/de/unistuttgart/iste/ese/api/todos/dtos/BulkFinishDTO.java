@@ -0,0 +1,11 @@
+package de.unistuttgart.iste.ese.api.todos.dtos;
+
+import jakarta.validation.constraints.NotEmpty;
+
+import java.util.List;
+
+public record BulkFinishDTO(
+    @NotEmpty(message = "At least one todo id is required")
+    List<Long> ids,
+    boolean finished) {
+}
@@ -0,0 +1,13 @@
+package de.unistuttgart.iste.ese.api.todos.dtos;
+
+public record NormalizedTodoDTO(
+    long id,
+    String title,
+    String description,
+    boolean finished,
+    long[] assigneeIds,
+    long createdDate,
+    Long dueDate,
+    Long finishedDate,
+    String category) {
+}
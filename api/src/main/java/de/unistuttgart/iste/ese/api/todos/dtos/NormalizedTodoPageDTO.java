@@ -0,0 +1,8 @@
+package de.unistuttgart.iste.ese.api.todos.dtos;
+
+import de.unistuttgart.iste.ese.api.assignees.Assignee;
+
+import java.util.List;
+
+public record NormalizedTodoPageDTO(List<NormalizedTodoDTO> todos, List<Assignee> assignees, String next) {
+}
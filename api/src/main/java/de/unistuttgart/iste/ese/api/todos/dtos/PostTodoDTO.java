@@ -7,100 +7,15 @@ import jakarta.validation.constraints.NotNull;
 
 import java.util.List;
 
-public class PostTodoDTO {
-    
-    private Long id;
-    
+public record PostTodoDTO(
+    long id,
     @NotNull(message = "Title is required")
     @Size(min = 1, message = "Title must be at least one character long")
-    private String title;
-
-    private String description;
-
-    private boolean finished;
-
-    private List<Assignee> assigneeList;
-    
-    private Long createdDate;
-
-    private Long dueDate;
-    
-    private String category;
-
-    public PostTodoDTO(){}
-    public PostTodoDTO(Long id, String title, String description, boolean finished, List<Assignee> assigneList,
-                       Long createdDate, Long dueDate, String category) {
-        this.id =id;
-        this.title = title;
-        this.description = description;
-        this.finished = finished;
-        this.assigneeList = assigneList;
-        this.createdDate = createdDate;
-        this.dueDate = dueDate;
-        this.category = category;
-    }
-
-    public Long getId() {
-        return id;
-    }
-
-    public void setId(Long id) {
-        this.id = id;
-    }
-
-    public String getTitle() {
-        return title;
-    }
-
-    public void setTitle(String title) {
-        this.title = title;
-    }
-
-    public String getDescription() {
-        return description;
-    }
-    
-    public void setDescription(String description) {
-        this.description = description;
-    }
-
-    public boolean isFinished() {
-        return finished;
-    }
-
-    public void setFinished(boolean finished) {
-        this.finished = finished;
-    }
-
-    public List<Assignee> getAssigneeList() {
-        return assigneeList;
-    }
-
-    public void setAssigneeList(List<Assignee> assigneeList) {
-        this.assigneeList = assigneeList;
-    }
-
-    public Long getDueDate() {
-        return dueDate;
-    }
-
-    public void setDueDate(Long dueDate) {
-        this.dueDate = dueDate;
-    }
-
-    public Long getCreatedDate() {
-        return createdDate;
-    }
-
-    public void setCreatedDate(Long createdDate) {
-        this.createdDate = createdDate;
-    }
-
-    public String getCategory() {
-        return category;
-    }
-
-    public void setCategory(String category) {
-        this.category = category;
-    }
+    String title,
+    String description,
+    boolean finished,
+    List<Assignee> assigneeList,
+    long createdDate,
+    Long dueDate,
+    String category) {
 }
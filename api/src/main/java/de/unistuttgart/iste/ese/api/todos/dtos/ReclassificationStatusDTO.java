@@ -0,0 +1,5 @@
+package de.unistuttgart.iste.ese.api.todos.dtos;
+
+public record ReclassificationStatusDTO(String state, String modelVersion, Long startedAt, Long finishedAt,
+                                        long lastId, long maxId, long processed, long updated, String error) {
+}
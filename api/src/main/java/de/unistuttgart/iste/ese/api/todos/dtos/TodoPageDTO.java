@@ -0,0 +1,6 @@
+package de.unistuttgart.iste.ese.api.todos.dtos;
+
+import java.util.List;
+
+public record TodoPageDTO(List<GetTodoDTO> todos, String next) {
+}
@@ -0,0 +1,54 @@
+package de.unistuttgart.iste.ese.api;
+
+import de.unistuttgart.iste.ese.api.assignees.Assignee;
+import de.unistuttgart.iste.ese.api.assignees.AssigneeRepository;
+import de.unistuttgart.iste.ese.api.todos.Todo;
+import de.unistuttgart.iste.ese.api.todos.TodoRepository;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+
+/**
+ * Seeds Todos and Assignees for the integration tests.
+ */
+public final class TestData {
+
+    private TestData() {
+    }
+
+    /**
+     * Creates Assignees with valid names and university email addresses.
+     *
+     * @param assigneeRepository The repository to save them with.
+     * @param count The number of Assignees.
+     * @return The saved Assignees.
+     */
+    public static List<Assignee> assignees(AssigneeRepository assigneeRepository, int count) {
+        List<Assignee> assignees = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            assignees.add(new Assignee("Ada" + i, "Lovelace" + i, "ada" + i + "@uni-stuttgart.de"));
+        }
+        return assigneeRepository.saveAll(assignees);
+    }
+
+    /**
+     * Creates Todos with two Assignees each, taken round-robin from the given ones.
+     *
+     * @param todoRepository The repository to save them with.
+     * @param assignees The Assignees to assign, at least two.
+     * @param count The number of Todos.
+     * @return The saved Todos.
+     */
+    public static List<Todo> todos(TodoRepository todoRepository, List<Assignee> assignees, int count) {
+        List<Todo> todos = new ArrayList<>(count);
+        Date now = new Date();
+        for (int i = 0; i < count; i++) {
+            List<Assignee> assigneeList = new ArrayList<>(List.of(
+                assignees.get(i % assignees.size()), assignees.get((i + 1) % assignees.size())));
+            todos.add(new Todo("Todo " + i, "Description " + i, i % 3 == 0, assigneeList, now,
+                new Date(now.getTime() + i * 60_000L), null, "work"));
+        }
+        return todoRepository.saveAll(todos);
+    }
+}
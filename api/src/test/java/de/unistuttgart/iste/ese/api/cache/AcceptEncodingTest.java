@@ -0,0 +1,44 @@
+package de.unistuttgart.iste.ese.api.cache;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Checks that gzip is only chosen for codings the client accepts with a quality above 0.
+ */
+class AcceptEncodingTest {
+
+    @Test
+    void acceptsListedGzip() {
+        assertTrue(AcceptEncoding.acceptsGzip("gzip"));
+        assertTrue(AcceptEncoding.acceptsGzip("deflate, gzip, br"));
+        assertTrue(AcceptEncoding.acceptsGzip("br;q=1.0, GZIP;q=0.5"));
+        assertTrue(AcceptEncoding.acceptsGzip("x-gzip"));
+    }
+
+    @Test
+    void refusesGzipWithQualityZero() {
+        assertFalse(AcceptEncoding.acceptsGzip("gzip;q=0"));
+        assertFalse(AcceptEncoding.acceptsGzip("br, gzip; q=0.0"));
+        assertFalse(AcceptEncoding.acceptsGzip("*, gzip;q=0"));
+        assertFalse(AcceptEncoding.acceptsGzip("gzip;q=invalid"));
+    }
+
+    @Test
+    void fallsBackToTheWildcard() {
+        assertTrue(AcceptEncoding.acceptsGzip("*"));
+        assertTrue(AcceptEncoding.acceptsGzip("br, *;q=0.1"));
+        assertFalse(AcceptEncoding.acceptsGzip("br, *;q=0"));
+    }
+
+    @Test
+    void refusesWithoutGzip() {
+        assertFalse(AcceptEncoding.acceptsGzip(null));
+        assertFalse(AcceptEncoding.acceptsGzip(""));
+        assertFalse(AcceptEncoding.acceptsGzip("identity"));
+        assertFalse(AcceptEncoding.acceptsGzip("br, deflate"));
+        assertFalse(AcceptEncoding.acceptsGzip("gzipped"));
+    }
+}
@@ -0,0 +1,187 @@
+package de.unistuttgart.iste.ese.api.sql;
+
+import de.unistuttgart.iste.ese.api.ApiVersion1;
+import de.unistuttgart.iste.ese.api.MergePatch;
+import de.unistuttgart.iste.ese.api.TestData;
+import de.unistuttgart.iste.ese.api.assignees.Assignee;
+import de.unistuttgart.iste.ese.api.assignees.AssigneeRepository;
+import de.unistuttgart.iste.ese.api.cache.ChangeVersion;
+import de.unistuttgart.iste.ese.api.sync.TombstoneRepository;
+import de.unistuttgart.iste.ese.api.todos.Todo;
+import de.unistuttgart.iste.ese.api.todos.TodoRepository;
+import jakarta.servlet.ServletException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.patch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Checks that the endpoints with an SqlBudget stay within it on seeded data, and that an exceeded
+ * budget fails the request in the test profile, which runs with todos.sql.budget.mode=fail.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@Import(SqlBudgetGuardTest.OverBudgetController.class)
+class SqlBudgetGuardTest {
+
+    /**
+     * Endpoints that query more than their budget allows.
+     */
+    @RestController
+    @ApiVersion1
+    static class OverBudgetController {
+
+        @Autowired
+        private TodoRepository todoRepository;
+
+        @GetMapping("/sql-budget-test/statements")
+        @SqlBudget(statements = 0)
+        public long countTodos() {
+            return todoRepository.count();
+        }
+
+        @GetMapping("/sql-budget-test/rows")
+        @SqlBudget(statements = 1, rows = 1)
+        public int loadTodos() {
+            return todoRepository.findAll().size();
+        }
+    }
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private TodoRepository todoRepository;
+
+    @Autowired
+    private AssigneeRepository assigneeRepository;
+
+    @Autowired
+    private TombstoneRepository tombstoneRepository;
+
+    @Autowired
+    private ChangeVersion changeVersion;
+
+    private List<Assignee> assignees;
+
+    private List<Todo> todos;
+
+    @BeforeEach
+    void seedData() {
+        assignees = TestData.assignees(assigneeRepository, 7);
+        todos = TestData.todos(todoRepository, assignees, 20);
+        // the seeded rows bypass the services, make the cached list responses stale
+        changeVersion.bump();
+    }
+
+    @AfterEach
+    void deleteData() {
+        todoRepository.deleteAll();
+        assigneeRepository.deleteAll();
+        tombstoneRepository.deleteAll();
+    }
+
+    @Test
+    void todoEndpointsStayWithinTheirBudgets() throws Exception {
+        long id = todos.get(0).getId();
+        String assigneeIds = assignees.get(0).getId() + ", " + assignees.get(1).getId();
+
+        withinBudget(get("/api/v1/todos"));
+        withinBudget(get("/api/v1/todos").param("limit", "5"));
+        withinBudget(get("/api/v1/todos").param("shape", "normalized"));
+        withinBudget(get("/api/v1/todos").param("finished", "true").param("assigneeId", assignees.get(0).getId().toString()));
+        withinBudget(get("/api/v1/todos/" + id));
+        withinBudgetAsync(get("/api/v1/todos").accept(MediaType.APPLICATION_NDJSON));
+        withinBudgetAsync(get("/api/v1/csv-downloads/todos"));
+
+        withinBudget(post("/api/v1/todos").contentType(MediaType.APPLICATION_JSON)
+            .content("{\"title\": \"Team meeting\", \"assigneeIdList\": [" + assigneeIds + "]}"));
+        withinBudget(post("/api/v1/todos/batch").contentType(MediaType.APPLICATION_JSON)
+            .content("[{\"title\": \"Grocery shopping\", \"assigneeIdList\": [" + assigneeIds + "]},"
+                + " {\"title\": \"Dentist appointment\"}, {\"title\": \"Sales report\", \"finished\": true}]"));
+        withinBudget(put("/api/v1/todos/" + id).contentType(MediaType.APPLICATION_JSON)
+            .content("{\"title\": \"Budget review\", \"description\": \"Q3\", \"assigneeIdList\": [" + assigneeIds + "]}"));
+        withinBudget(patch("/api/v1/todos/" + id).contentType(MergePatch.MEDIA_TYPE)
+            .content("{\"finished\": true, \"description\": null}"));
+        withinBudget(put("/api/v1/todos/batch/finished").contentType(MediaType.APPLICATION_JSON)
+            .content("{\"ids\": [" + todos.get(1).getId() + ", " + todos.get(2).getId() + "], \"finished\": true}"));
+        withinBudget(delete("/api/v1/todos/" + todos.get(3).getId()));
+        withinBudget(delete("/api/v1/todos").param("finished", "true"));
+    }
+
+    @Test
+    void assigneeEndpointsStayWithinTheirBudgets() throws Exception {
+        long id = assignees.get(0).getId();
+
+        withinBudget(post("/api/v1/assignees").contentType(MediaType.APPLICATION_JSON)
+            .content("{\"prename\": \"Grace\", \"name\": \"Hopper\", \"email\": \"grace@uni-stuttgart.de\"}"));
+        withinBudget(get("/api/v1/assignees"));
+        withinBudget(get("/api/v1/assignees/" + id));
+        withinBudget(put("/api/v1/assignees/" + id).contentType(MediaType.APPLICATION_JSON)
+            .content("{\"prename\": \"Ada\", \"name\": \"Byron\", \"email\": \"ada.byron@uni-stuttgart.de\"}"));
+        withinBudget(patch("/api/v1/assignees/" + id).contentType(MergePatch.MEDIA_TYPE)
+            .content("{\"name\": \"King\"}"));
+        withinBudget(post("/api/v1/assignees/" + id + "/reassign").param("to", assignees.get(1).getId().toString()));
+        withinBudget(delete("/api/v1/assignees/" + assignees.get(2).getId()));
+    }
+
+    @Test
+    void exceedingTheStatementBudgetFailsTheRequest() {
+        assertExceeded(get("/api/v1/sql-budget-test/statements"));
+    }
+
+    @Test
+    void exceedingTheRowBudgetFailsTheRequest() {
+        assertExceeded(get("/api/v1/sql-budget-test/rows"));
+    }
+
+    /**
+     * Performs a request that succeeds in fail mode and reports its statements.
+     */
+    private void withinBudget(MockHttpServletRequestBuilder builder) throws Exception {
+        mockMvc.perform(builder)
+            .andExpect(status().is2xxSuccessful())
+            .andExpect(header().exists(SqlBudgetGuard.STATEMENTS_HEADER));
+    }
+
+    /**
+     * Performs a streamed request, whose budget is checked before the body is streamed.
+     */
+    private void withinBudgetAsync(MockHttpServletRequestBuilder builder) throws Exception {
+        MvcResult result = mockMvc.perform(builder)
+            .andExpect(request().asyncStarted())
+            .andReturn();
+        result.getAsyncResult();
+        mockMvc.perform(asyncDispatch(result)).andExpect(status().is2xxSuccessful());
+    }
+
+    private void assertExceeded(MockHttpServletRequestBuilder builder) {
+        ServletException exception = assertThrows(ServletException.class, () -> mockMvc.perform(builder));
+        IllegalStateException cause = assertInstanceOf(IllegalStateException.class, exception.getCause());
+        assertTrue(cause.getMessage().contains("exceeded its SQL budget"), cause.getMessage());
+    }
+}
@@ -0,0 +1,113 @@
+package de.unistuttgart.iste.ese.api.todos;
+
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Checks that the compiled bundled model predicts the same categories as the JPMML evaluator,
+ * and that titles it does not score are left to the evaluator.
+ */
+class CompiledTodoModelTest {
+
+    private static final String BUNDLED_MODEL = "model.pmml";
+
+    private static final List<String> TERMS = List.of(
+        "annual", "appointment", "birthday", "book", "budget", "car", "cleaning", "client", "club", "deadline",
+        "dentist", "dinner", "family", "gardening", "getaway", "grocery", "gym", "house", "launch", "maintenance",
+        "marketing", "meeting", "network", "party", "performance", "planning", "preparation", "presentation",
+        "product", "project", "report", "review", "sales", "session", "shopping", "strategy", "team", "weekend");
+
+    private static final List<String> CORPUS = List.of(
+        // empty and whitespace, including separators that \s does not match
+        "", " ", "   ", "\t", "\n", "\r\n", " \t\u000B\f\r\n ", "\u00A0", "\u2003", "\u3000",
+        // separators and case
+        "Team meeting", "TEAM MEETING", "tEaM mEeTiNg", "  MEETING\twith\nthe   TEAM  ", "meeting\u000Bteam",
+        "meeting\u00A0team", "Family\u2003dinner", "Grocery\u3000shopping",
+        // punctuation
+        "Birthday party!", "Project deadline, product launch", "(meeting)", "\"meeting\"", "'team'",
+        "...planning...", "meeting?!", "team-meeting", "team_meeting", "team.meeting", "e-mail the client",
+        "#gym", "@client", "meeting:", "[review]", "{strategy}", "meeting/team", "meeting\\team", "*party*",
+        "$budget", "+gym", "<report>", "=sales=", "^weekend", "`book`", "|club|", "~dinner~", "budget$", "gym++",
+        "\u00ABmeeting\u00BB", "\u201Cparty\u201D", "\u2018team\u2019", "meeting\u2014team", "\u00BFdinner?",
+        "\u00A1party!", "\u300Cmeeting\u300D", "gym\u2026",
+        // digits
+        "1", "42", "2024", "meeting 2", "meeting2", "2meeting", "Q3 sales report", "car 4x4 maintenance",
+        "\u0661\u0662\u0663 meeting", "\uFF11\uFF12 gym",
+        // unknown terms
+        "unrelated words only", "xyzzy", "meetings", "meet", "planningplanning", "gardenings", "Hausputz",
+        "Zahnarzttermin", "r\u00E9union d'\u00E9quipe",
+        // Unicode case folding
+        "\u0130", "\u0131", "MEET\u0130NG", "meet\u0131ng", "PLANN\u0130NG", "\u0130stanbul weekend getaway",
+        "\u00DF", "\u1E9E", "STRA\u00DFE", "Stra\u00DFe meeting", "\u1E9E meeting", "gro\u00DF family dinner",
+        "\u03A3\u03A3 team", "\u0391\u039D\u039D\u03A5\u0391\u039B", "\uFB00 meeting", "\uFF4D\uFF45\uFF45\uFF54\uFF49\uFF4E\uFF47",
+        "\u212Aar", "\u212B", "caf\u00E9 meeting", "cafe\u0301 meeting", "\uD83C\uDF89 party", "party \uD83C\uDF89",
+        "meeting\uD83D\uDE00", "\uD835\uDC26\uD835\uDC32\uD835\uDC26", "\u0000meeting", "meeting\u0007team");
+
+    private static TodoModel model;
+
+    private static CompiledTodoModel compiledModel;
+
+    @BeforeAll
+    static void loadModel() throws IOException {
+        model = new TodoModel(BUNDLED_MODEL);
+        assertTrue(model.isLoaded());
+        try (InputStream inputStream = CompiledTodoModelTest.class.getClassLoader().getResourceAsStream(BUNDLED_MODEL)) {
+            assertNotNull(inputStream);
+            compiledModel = CompiledTodoModel.compile(inputStream.readAllBytes());
+        }
+    }
+
+    @Test
+    void compiledModelAgreesWithTheEvaluator() {
+        for (String title : corpus()) {
+            String expected = model.evaluate(title);
+            String compiled = compiledModel.predictClass(title);
+            if (compiled != null) {
+                assertEquals(expected, compiled, () -> "compiled model disagrees on '" + title + "'");
+            }
+            assertEquals(expected, model.predictClass(title), () -> "loaded model disagrees on '" + title + "'");
+        }
+    }
+
+    @Test
+    void compiledModelScoresAsciiTitles() {
+        for (String title : corpus()) {
+            if (title.chars().allMatch(c -> c < 0x80 && "$+<=>^`|~".indexOf(c) < 0)) {
+                assertNotNull(compiledModel.predictClass(title), () -> "compiled model does not score '" + title + "'");
+            }
+        }
+    }
+
+    @Test
+    void compiledModelLeavesCaseFoldedTitlesToTheEvaluator() {
+        for (String title : List.of("MEET\u0130NG", "meet\u0131ng", "STRA\u00DFE", "\u1E9E meeting", "\u212Aar")) {
+            assertNull(compiledModel.predictClass(title), () -> "compiled model scores '" + title + "'");
+        }
+    }
+
+    /**
+     * The corpus, every term of the model alone and in mixed case, and the parity corpus checked on load.
+     */
+    private static List<String> corpus() {
+        List<String> corpus = new ArrayList<>(CORPUS);
+        corpus.addAll(TodoModel.PARITY_CORPUS);
+        for (String term : TERMS) {
+            corpus.add(term);
+            corpus.add(term.toUpperCase());
+            corpus.add(" " + Character.toUpperCase(term.charAt(0)) + term.substring(1) + ". ");
+        }
+        corpus.add(String.join(" ", TERMS));
+        corpus.add(String.join(",", TERMS));
+        return corpus;
+    }
+}
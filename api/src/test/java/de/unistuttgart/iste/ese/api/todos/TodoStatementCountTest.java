@@ -0,0 +1,100 @@
+package de.unistuttgart.iste.ese.api.todos;
+
+import de.unistuttgart.iste.ese.api.TestData;
+import de.unistuttgart.iste.ese.api.assignees.Assignee;
+import de.unistuttgart.iste.ese.api.assignees.AssigneeRepository;
+import de.unistuttgart.iste.ese.api.cache.ChangeVersion;
+import de.unistuttgart.iste.ese.api.sql.SqlBudgetGuard;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Checks that the read paths load Todos with their assignees in a constant number of statements,
+ * however many Todos there are.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+class TodoStatementCountTest {
+
+    private static final int TODOS = 20;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private TodoRepository todoRepository;
+
+    @Autowired
+    private AssigneeRepository assigneeRepository;
+
+    @Autowired
+    private ChangeVersion changeVersion;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @AfterEach
+    void deleteData() {
+        todoRepository.deleteAll();
+        assigneeRepository.deleteAll();
+    }
+
+    @Test
+    void statementCountDoesNotGrowWithTheNumberOfTodos() throws Exception {
+        List<Assignee> assignees = TestData.assignees(assigneeRepository, 7);
+        Todo todo = TestData.todos(todoRepository, assignees, TODOS).get(0);
+        long[] small = countStatements(todo.getId());
+
+        TestData.todos(todoRepository, assignees, 9 * TODOS);
+        long[] large = countStatements(todo.getId());
+
+        assertTrue(small[0] > 0 && small[1] > 0 && small[2] > 0, "every read path queries the database");
+        assertEquals(small[0], large[0], "GET /todos");
+        assertEquals(small[1], large[1], "GET /todos/{id}");
+        assertEquals(small[2], large[2], "GET /csv-downloads/todos");
+    }
+
+    /**
+     * Returns the statements of GET /todos, GET /todos/{id} and the CSV export.
+     */
+    private long[] countStatements(long id) throws Exception {
+        // the seeded rows bypass the services, make the cached list responses stale
+        changeVersion.bump();
+        long list = Long.parseLong(mockMvc.perform(get("/api/v1/todos"))
+            .andExpect(status().isOk())
+            .andReturn().getResponse().getHeader(SqlBudgetGuard.STATEMENTS_HEADER));
+        long single = Long.parseLong(mockMvc.perform(get("/api/v1/todos/" + id))
+            .andExpect(status().isOk())
+            .andReturn().getResponse().getHeader(SqlBudgetGuard.STATEMENTS_HEADER));
+
+        // the export runs on an async thread after the headers are written, count it in the statistics
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+        MvcResult export = mockMvc.perform(get("/api/v1/csv-downloads/todos"))
+            .andExpect(request().asyncStarted())
+            .andReturn();
+        export.getAsyncResult();
+        mockMvc.perform(asyncDispatch(export)).andExpect(status().isOk());
+        long exported = statistics.getPrepareStatementCount();
+        assertEquals(todoRepository.count() + 1, export.getResponse().getContentAsString().lines().count(),
+            "the export contains a header and every Todo");
+        return new long[]{list, single, exported};
+    }
+}
@@ -26,16 +26,23 @@ export interface ToDo {
 export const todos = ref<ToDo[]>([])
 
 /**
- * Fetches all ToDos from the server
+ * Fetches all ToDos from the server page by page, following the cursor in the X-Next-Cursor header
  * @async
  * @function fetchToDos
  * @returns {Promise<void>} Resolves when the ToDos are successfully fetched.
  */
 export async function fetchToDos() {
   try {
-    const response = await fetch(`${config.apiBaseUrl}/todos`)
-    if (!response.ok) throw new Error('Failed to fetch ToDos')
-    todos.value = await response.json()
+    const loaded: ToDo[] = []
+    let cursor: string | null = null
+    do {
+      const query: string = cursor ? `?cursor=${encodeURIComponent(cursor)}` : ''
+      const response = await fetch(`${config.apiBaseUrl}/todos${query}`)
+      if (!response.ok) throw new Error('Failed to fetch ToDos')
+      loaded.push(...((await response.json()) as ToDo[]))
+      cursor = response.headers.get('X-Next-Cursor')
+    } while (cursor)
+    todos.value = loaded
   } catch (error) {
     showToast(
       new Toast('Error', `Could not load ToDos: ${(error as Error).message}`, 'error', faXmark, 5)
@@ -43,6 +50,43 @@ export async function fetchToDos() {
   }
 }
 
+/**
+ * Subscribes to the change feed of the server and applies the changes to the loaded ToDos,
+ * so they stay current without fetching the whole list after every change.
+ * The browser reconnects on its own and resumes with the id of the last event it received.
+ * @function subscribeToChanges
+ * @returns {EventSource} The event source, close it to unsubscribe.
+ */
+export function subscribeToChanges(): EventSource {
+  const source = new EventSource(`${config.apiBaseUrl}/todos/changes`)
+  const upsert = (event: MessageEvent) => {
+    const todo: ToDo = JSON.parse(event.data)
+    const index = todos.value.findIndex((t) => t.id === todo.id)
+    if (index >= 0) todos.value[index] = todo
+    else todos.value.push(todo)
+  }
+  source.addEventListener('todo-created', upsert)
+  source.addEventListener('todo-updated', upsert)
+  source.addEventListener('todo-deleted', (event) => {
+    const { id } = JSON.parse(event.data)
+    todos.value = todos.value.filter((t) => t.id !== id)
+  })
+  source.addEventListener('assignee-updated', (event) => {
+    const assignee: Assignee = JSON.parse(event.data)
+    for (const todo of todos.value) {
+      todo.assigneeList = todo.assigneeList.map((a) => (a.id === assignee.id ? assignee : a))
+    }
+  })
+  source.addEventListener('assignee-deleted', (event) => {
+    const { id } = JSON.parse(event.data)
+    for (const todo of todos.value) {
+      todo.assigneeList = todo.assigneeList.filter((a) => a.id !== id)
+    }
+  })
+  source.addEventListener('resync', () => fetchToDos())
+  return source
+}
+
 /**
  * Marks a ToDo as unfinished.
  * @async
@@ -51,17 +95,11 @@ export async function fetchToDos() {
  * @returns {Promise<void>} Resolves when the ToDo is successfully updated.
  */
 export async function toggleToDoUnfinished(todo: ToDo) {
-  const updatedTodo = {
-    ...todo,
-    finished: false,
-    assigneeIdList: todo.assigneeList.map((a) => a.id)
-  }
-
   try {
     const response = await fetch(`${config.apiBaseUrl}/todos/${todo.id}`, {
-      method: 'PUT',
-      headers: { 'Content-Type': 'application/json' },
-      body: JSON.stringify(updatedTodo)
+      method: 'PATCH',
+      headers: { 'Content-Type': 'application/merge-patch+json' },
+      body: JSON.stringify({ finished: false })
     })
 
     if (!response.ok) {
@@ -87,15 +125,10 @@ export async function toggleToDoUnfinished(todo: ToDo) {
  */
 export async function toggleToDoFinished(todo: ToDo) {
   try {
-    const updatedTodo = {
-      ...todo,
-      finished: true,
-      assigneeIdList: todo.assigneeList.map((a) => a.id)
-    }
     const response = await fetch(`${config.apiBaseUrl}/todos/${todo.id}`, {
-      method: 'PUT',
-      headers: { 'Content-Type': 'application/json' },
-      body: JSON.stringify(updatedTodo)
+      method: 'PATCH',
+      headers: { 'Content-Type': 'application/merge-patch+json' },
+      body: JSON.stringify({ finished: true })
     })
 
     if (!response.ok) throw new Error('Failed to update ToDo')